@@ -0,0 +1,253 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+import com.sun.management.VMOption;
+
+import net.whirvis.mc.jsoncrafter.java.PlainText;
+import net.whirvis.mc.jsoncrafter.java.RichText;
+import net.whirvis.mc.jsoncrafter.java.RichTextWriter;
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipItem;
+
+/**
+ * Measures the bytes allocated by each serialization hot path, and fails when
+ * any of them allocates more than its recorded baseline. This is run as part
+ * of the build via the {@code allocation-budget} profile:
+ *
+ * <pre>
+ * mvn verify -Pallocation-budget
+ * </pre>
+ * <p>
+ * The first argument is the baseline file. When {@code --record} is given as
+ * the second argument, the baseline is written rather than checked. This
+ * should only be done after a change which is expected to allocate more (or
+ * less) than before.
+ * <p>
+ * Allocations are measured via
+ * {@link ThreadMXBean#getThreadAllocatedBytes(long)}, after each operation
+ * has been warmed up. The JVM should be run with
+ * {@code -XX:-DoEscapeAnalysis}. Otherwise, whether the JIT compiler removes
+ * some allocations can differ from one run to the next, making the results
+ * unreliable. The baseline should also be recorded with the same JVM it is
+ * checked with.
+ */
+public final class AllocationBudget {
+
+	/**
+	 * An operation whose allocations are measured.
+	 */
+	@FunctionalInterface
+	private interface Operation {
+
+		Object run() throws IOException;
+
+	}
+
+	private static final int WARMUP_ITERATIONS = 20000;
+	private static final int ITERATIONS = 2000;
+	private static final int ROUNDS = 5;
+
+	/*
+	 * Some leeway is given, as the number of bytes allocated can vary
+	 * slightly between runs (e.g., due to when the JIT compiler kicks in).
+	 */
+	private static final double TOLERANCE = 0.10;
+	private static final long MIN_TOLERANCE = 64;
+
+	private static final ThreadMXBean THREADS =
+			(ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/* keeps results reachable, so operations cannot be optimized away */
+	private static Object sink;
+
+	private AllocationBudget() {
+		/* static class */
+	}
+
+	@NotNull
+	private static Map<String, Operation> getOperations() {
+		Map<String, Operation> operations = new LinkedHashMap<>();
+		for (Shape shape : Shape.values()) {
+			/*
+			 * Text caches its JSON, so the last piece of text is changed
+			 * before each call. Only it and the text it is nested in are
+			 * encoded again, as would be the case for a real message.
+			 */
+			RichText text = shape.build();
+			RichText last = SerializationBenchmark.getLast(text);
+			boolean[] changed = new boolean[1];
+			operations.put("toString." + shape, () -> {
+				changed[0] = !changed[0];
+				last.setInsertion(changed[0] ? "a" : null);
+				return text.toString();
+			});
+
+			operations.put("toJson." + shape, text::toJson);
+
+			List<Object> values = Arrays.asList(text, "plain", 64);
+			operations.put("toJsonIterable." + shape,
+					() -> RichText.toJson(values));
+		}
+
+		Map<String, TextEvent> events = new LinkedHashMap<>();
+		events.put("click", new ClickEvent(ClickEvent.RUN_COMMAND)
+				.setText("/say hello"));
+		events.put("hoverText", new HoverEvent().show(
+				new PlainText("Click to say ").setColor("gray"),
+				new PlainText("hello").setColor("gold").setBold(true)));
+		events.put("hoverItem", new HoverEvent().show(new TooltipItem(
+				"minecraft:diamond_sword", 1, "{Damage:10}")));
+		for (Map.Entry<String, TextEvent> entry : events.entrySet()) {
+			TextEvent event = entry.getValue();
+			operations.put("eventToJson." + entry.getKey(), event::toJson);
+			operations.put("eventWriteJson." + entry.getKey(), () -> {
+				StringWriter json = new StringWriter();
+				event.writeJson(new RichTextWriter(json));
+				return json.toString();
+			});
+		}
+		return operations;
+	}
+
+	private static long measure(@NotNull Operation operation)
+			throws IOException {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink = operation.run();
+		}
+
+		/*
+		 * The least allocated by any round is used, so a round which happens
+		 * to include a recompilation does not count against the operation.
+		 */
+		long thread = Thread.currentThread().getId();
+		long least = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long before = THREADS.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < ITERATIONS; i++) {
+				sink = operation.run();
+			}
+			long after = THREADS.getThreadAllocatedBytes(thread);
+			least = Math.min(least, (after - before) / ITERATIONS);
+		}
+		return least;
+	}
+
+	private static boolean isEscapeAnalysisEnabled() {
+		HotSpotDiagnosticMXBean diagnostics = ManagementFactory
+				.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+		if (diagnostics == null) {
+			return false; /* not a HotSpot JVM */
+		}
+		try {
+			VMOption option = diagnostics.getVMOption("DoEscapeAnalysis");
+			return Boolean.parseBoolean(option.getValue());
+		} catch (IllegalArgumentException e) {
+			return false; /* option not present in this JVM */
+		}
+	}
+
+	private static long getBudget(long baseline) {
+		long tolerance = Math.max(MIN_TOLERANCE,
+				(long) (baseline * TOLERANCE));
+		return baseline + tolerance;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: AllocationBudget <baseline> [--record]");
+			System.exit(2);
+		}
+		Path path = Paths.get(args[0]);
+		boolean record = args.length > 1 && args[1].equals("--record");
+		if (!THREADS.isThreadAllocatedMemorySupported()) {
+			System.err.println("allocation measurement not supported");
+			System.exit(2);
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+		if (isEscapeAnalysisEnabled()) {
+			System.err.println("warning: escape analysis is enabled, results"
+					+ " may differ between runs (use -XX:-DoEscapeAnalysis)");
+		}
+
+		Properties baseline = new Properties();
+		if (!record) {
+			try (Reader in = Files.newBufferedReader(path,
+					StandardCharsets.UTF_8)) {
+				baseline.load(in);
+			}
+		}
+
+		Map<String, Long> results = new LinkedHashMap<>();
+		int failures = 0;
+		for (Map.Entry<String, Operation> entry : getOperations().entrySet()) {
+			String name = entry.getKey();
+			long bytes = measure(entry.getValue());
+			results.put(name, bytes);
+			if (record) {
+				System.out.printf("%-32s %8d B/op%n", name, bytes);
+				continue;
+			}
+
+			String expected = baseline.getProperty(name);
+			if (expected == null) {
+				System.out.printf("%-32s %8d B/op  (no baseline)%n", name,
+						bytes);
+				failures += 1;
+				continue;
+			}
+			long budget = getBudget(Long.parseLong(expected.trim()));
+			boolean failed = bytes > budget;
+			System.out.printf("%-32s %8d B/op  (budget %d)%s%n", name, bytes,
+					budget, failed ? "  OVER BUDGET" : "");
+			if (failed) {
+				failures += 1;
+			}
+		}
+
+		if (record) {
+			writeBaseline(path, results);
+			System.out.println("baseline written to " + path);
+		} else if (failures > 0) {
+			System.err.println(failures + " operation(s) over budget");
+			System.exit(1);
+		}
+	}
+
+	private static void writeBaseline(@NotNull Path path,
+			@NotNull Map<String, Long> results) throws IOException {
+		try (Writer out = Files.newBufferedWriter(path,
+				StandardCharsets.UTF_8)) {
+			out.write("# Bytes allocated per operation, measured by"
+					+ " AllocationBudget.\n");
+			out.write("# Recorded with Java " + System.getProperty(
+					"java.version") + " (" + System.getProperty("java.vm.name")
+					+ ")" + (isEscapeAnalysisEnabled() ? ""
+							: ", with -XX:-DoEscapeAnalysis")
+					+ ".\n");
+			for (Map.Entry<String, Long> result : results.entrySet()) {
+				out.write(result.getKey() + "=" + result.getValue() + "\n");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so the allocation rate is
+ * reported alongside the throughput of each benchmark. Arguments are the same
+ * as those accepted by JMH. For example, to only run the serialization
+ * benchmarks:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar Serialization
+ * </pre>
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+		/* static class */
+	}
+
+	public static void main(String[] args)
+			throws CommandLineOptionException, RunnerException {
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+
+}
@@ -0,0 +1,56 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.whirvis.mc.jsoncrafter.java.RichText;
+
+/**
+ * Measures building text, along with copying and freezing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+	@Param
+	private Shape shape;
+
+	private RichText text;
+
+	@Setup
+	public void setup() {
+		this.text = shape.build();
+	}
+
+	@Benchmark
+	public RichText build() {
+		return shape.build();
+	}
+
+	@Benchmark
+	public RichText copy() {
+		return text.copy();
+	}
+
+	@Benchmark
+	public RichText freeze() {
+		/* copy first, as freezing text which is already frozen does nothing */
+		return text.copy().freeze();
+	}
+
+}
@@ -0,0 +1,71 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.whirvis.mc.jsoncrafter.java.RichText;
+
+/**
+ * Measures hashing and comparing text. The text compared is built separately,
+ * so it shares nothing with the text it is compared to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EqualityBenchmark {
+
+	@Param
+	private Shape shape;
+
+	private RichText text;
+	private RichText last;
+	private RichText same;
+	private RichText different;
+	private boolean changed;
+
+	@Setup
+	public void setup() {
+		this.text = shape.build();
+		this.last = SerializationBenchmark.getLast(text);
+		this.same = shape.build();
+		this.different = shape.build();
+		SerializationBenchmark.getLast(different).setInsertion("different");
+	}
+
+	@Benchmark
+	public int hashCodeCached() {
+		return text.hashCode();
+	}
+
+	@Benchmark
+	public int hashCodeAfterChange() {
+		this.changed = !changed;
+		last.setInsertion(changed ? "a" : null);
+		return text.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsSame() {
+		return text.equals(same);
+	}
+
+	@Benchmark
+	public boolean equalsDifferent() {
+		return text.equals(different);
+	}
+
+}
@@ -0,0 +1,89 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import net.whirvis.mc.jsoncrafter.java.PlainText;
+import net.whirvis.mc.jsoncrafter.java.RichTextWriter;
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipItem;
+
+/**
+ * Measures encoding events on their own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBenchmark {
+
+	private ClickEvent click;
+	private HoverEvent hoverText;
+	private HoverEvent hoverItem;
+
+	@Setup
+	public void setup() {
+		this.click = new ClickEvent(ClickEvent.OPEN_URL)
+				.setURL("https://github.com/whirvis/jsoncrafter-java");
+		this.hoverText = new HoverEvent().show(
+				new PlainText("Click to open ").setColor("gray"),
+				new PlainText("GitHub").setColor("gold").setBold(true));
+		this.hoverItem = new HoverEvent().show(new TooltipItem(
+				"minecraft:diamond_sword", 1, "{Damage:10}"));
+	}
+
+	private static String writeJson(TextEvent event) throws IOException {
+		StringWriter json = new StringWriter();
+		event.writeJson(new RichTextWriter(json));
+		return json.toString();
+	}
+
+	@Benchmark
+	public JsonObject clickToJson() {
+		return click.toJson();
+	}
+
+	@Benchmark
+	public String clickWriteJson() throws IOException {
+		return writeJson(click);
+	}
+
+	@Benchmark
+	public JsonObject hoverTextToJson() {
+		return hoverText.toJson();
+	}
+
+	@Benchmark
+	public String hoverTextWriteJson() throws IOException {
+		return writeJson(hoverText);
+	}
+
+	@Benchmark
+	public JsonObject hoverItemToJson() {
+		return hoverItem.toJson();
+	}
+
+	@Benchmark
+	public String hoverItemWriteJson() throws IOException {
+		return writeJson(hoverItem);
+	}
+
+}
@@ -0,0 +1,81 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.whirvis.mc.jsoncrafter.java.PlainText;
+import net.whirvis.mc.jsoncrafter.java.RichText;
+
+/**
+ * Measures removing extras from text. Since removing extras changes the text,
+ * it is built again before each invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtraBenchmark {
+
+	@Param({ "10", "1000" })
+	private int size;
+
+	private RichText text;
+	private List<RichText> everyOther;
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		this.text = new PlainText("");
+		this.everyOther = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			RichText extra = new PlainText(Integer.toString(i));
+			text.addExtra(extra);
+			if (i % 2 == 0) {
+				everyOther.add(extra);
+			}
+		}
+		text.toString(); /* so removals invalidate cached JSON */
+	}
+
+	@Benchmark
+	public RichText removeFirst() {
+		while (!text.getExtra().isEmpty()) {
+			text.removeExtra(0);
+		}
+		return text;
+	}
+
+	@Benchmark
+	public RichText removeLast() {
+		for (int i = size - 1; i >= 0; i--) {
+			text.removeExtra(i);
+		}
+		return text;
+	}
+
+	@Benchmark
+	public RichText removeEveryOther() {
+		return text.removeExtra(everyOther);
+	}
+
+	@Benchmark
+	public RichText clear() {
+		return text.clearExtra();
+	}
+
+}
@@ -0,0 +1,88 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import net.whirvis.mc.jsoncrafter.java.RichText;
+import net.whirvis.mc.jsoncrafter.java.RichTextWriter;
+
+/**
+ * Measures encoding text as JSON.
+ * <p>
+ * Since text caches its JSON, {@link #toStringCached()} only measures the
+ * cost of returning it. {@link #toStringAfterChange()} changes the last piece
+ * of text first, so only it and the text it is nested in are encoded again.
+ * {@link #writeJson()} never uses the cache, and measures encoding the whole
+ * of the text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param
+	private Shape shape;
+
+	private RichText text;
+	private RichText last;
+	private boolean changed;
+
+	@Setup
+	public void setup() {
+		this.text = shape.build();
+		this.last = getLast(text);
+	}
+
+	static RichText getLast(RichText text) {
+		List<RichText> extra = text.getExtra();
+		while (!extra.isEmpty()) {
+			text = extra.get(extra.size() - 1);
+			extra = text.getExtra();
+		}
+		return text;
+	}
+
+	@Benchmark
+	public JsonObject toJson() {
+		return text.toJson();
+	}
+
+	@Benchmark
+	public String toStringCached() {
+		return text.toString();
+	}
+
+	@Benchmark
+	public String toStringAfterChange() {
+		this.changed = !changed;
+		last.setInsertion(changed ? "a" : null);
+		return text.toString();
+	}
+
+	@Benchmark
+	public String writeJson() throws IOException {
+		StringWriter json = new StringWriter();
+		text.writeJson(new RichTextWriter(json));
+		return json.toString();
+	}
+
+}
@@ -0,0 +1,118 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.whirvis.mc.jsoncrafter.java.KeybindText;
+import net.whirvis.mc.jsoncrafter.java.PlainText;
+import net.whirvis.mc.jsoncrafter.java.RichText;
+import net.whirvis.mc.jsoncrafter.java.TranslatedText;
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+
+/**
+ * The shapes of text benchmarked, modeled after text commonly sent by
+ * plugins.
+ */
+public enum Shape {
+
+	/**
+	 * A chat line, with a clickable player name followed by their message.
+	 */
+	FLAT_CHAT {
+		@Override
+		@NotNull
+		public RichText build() {
+			RichText name = new PlainText("Whirvis").setColor("gold")
+					.addEvent(new ClickEvent(ClickEvent.SUGGEST_COMMAND)
+							.setText("/msg Whirvis "))
+					.addEvent(new HoverEvent().show("Click to message"));
+			return new PlainText("").addExtra(
+					new PlainText("[").setColor("dark_gray"), name,
+					new PlainText("] ").setColor("dark_gray"),
+					new PlainText("Has anyone seen my diamond pickaxe?"));
+		}
+	},
+
+	/**
+	 * Text nested 200 deep, with each level styled differently than the
+	 * last.
+	 */
+	DEEP_NESTING {
+		@Override
+		@NotNull
+		public RichText build() {
+			RichText root = new PlainText("0");
+			RichText parent = root;
+			for (int i = 1; i < DEPTH; i++) {
+				RichText child = new PlainText(Integer.toString(i))
+						.setBold(i % 2 == 0).setColor(COLORS[i % COLORS.length]);
+				parent.addExtra(child);
+				parent = child;
+			}
+			return root;
+		}
+	},
+
+	/**
+	 * A gradient of 1000 characters, each with its own color.
+	 */
+	GRADIENT {
+		@Override
+		@NotNull
+		public RichText build() {
+			RichText root = new PlainText("");
+			for (int i = 0; i < LEAVES; i++) {
+				int rgb = (i * 0xFF / LEAVES) << 16 | (0xFF - i * 0xFF / LEAVES);
+				root.addExtra(new PlainText(Character.toString(
+						(char) ('a' + i % 26))).setColor(rgb));
+			}
+			return root;
+		}
+	},
+
+	/**
+	 * An item name, with a tooltip of 40 lines of lore which use translations
+	 * and keybinds.
+	 */
+	ITEM_TOOLTIP {
+		@Override
+		@NotNull
+		public RichText build() {
+			RichText lore = new PlainText("").setItalic(false);
+			for (int i = 0; i < LINES; i++) {
+				if (i > 0) {
+					lore.addExtra(new PlainText("\n"));
+				}
+				lore.addExtra(new PlainText("Line " + i + ": ")
+						.setColor(COLORS[i % COLORS.length]));
+				if (i % 3 == 0) {
+					lore.addExtra(new TranslatedText("item.modifiers.mainhand",
+							new PlainText("+" + i).setColor("blue")));
+				} else if (i % 3 == 1) {
+					lore.addExtra(new KeybindText("key.use").setBold(true));
+				} else {
+					lore.addExtra(new PlainText("A \"quoted\" <value> & more")
+							.setItalic(true));
+				}
+			}
+			return new TranslatedText("item.minecraft.diamond_sword")
+					.setColor("aqua").addEvent(new HoverEvent().show(lore));
+		}
+	};
+
+	private static final int DEPTH = 200;
+	private static final int LEAVES = 1000;
+	private static final int LINES = 40;
+
+	private static final String[] COLORS = { "red", "gold", "yellow", "green",
+			"aqua", "blue", "light_purple" };
+
+	/**
+	 * Builds new text of this shape.
+	 *
+	 * @return new text of this shape.
+	 */
+	@NotNull
+	public abstract RichText build();
+
+}
@@ -0,0 +1,67 @@
+package net.whirvis.mc.jsoncrafter.java.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.whirvis.mc.jsoncrafter.java.PlainText;
+import net.whirvis.mc.jsoncrafter.java.RichText;
+import net.whirvis.mc.jsoncrafter.java.RichTextWriter;
+import net.whirvis.mc.jsoncrafter.java.TranslatedText;
+
+/**
+ * Measures translated text with "with" values of each kind: strings, numbers,
+ * and nested text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslatedBenchmark {
+
+	private RichText player;
+	private TranslatedText text;
+
+	@Setup
+	public void setup() {
+		this.player = new PlainText("Whirvis").setColor("gold");
+		this.text = this.build();
+	}
+
+	private TranslatedText build() {
+		return new TranslatedText("commands.give.success.single", 64,
+				new TranslatedText("item.minecraft.diamond").setColor("aqua"),
+				player, "extra", 3.5D);
+	}
+
+	@Benchmark
+	public TranslatedText construct() {
+		return this.build();
+	}
+
+	@Benchmark
+	public TranslatedText setWith() {
+		return text.setWith("Whirvis", 64, player);
+	}
+
+	@Benchmark
+	public String writeJson() throws IOException {
+		StringWriter json = new StringWriter();
+		text.writeJson(new RichTextWriter(json));
+		return json.toString();
+	}
+
+}
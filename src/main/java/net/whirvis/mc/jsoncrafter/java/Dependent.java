@@ -0,0 +1,22 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+/**
+ * An object whose encoded JSON depends on that of other objects, such as text
+ * which depends on its extras and events.
+ * 
+ * @see Dependents
+ */
+public interface Dependent {
+
+	/**
+	 * Invalidates any JSON cached by this object, as well as that of anything
+	 * which depends on it. This is called when an object this depends on has
+	 * been changed.
+	 * <p>
+	 * This should also be called manually if a value of this object has been
+	 * mutated in place, such as the content of a text. Otherwise, stale JSON
+	 * may be returned.
+	 */
+	void invalidate();
+
+}
@@ -0,0 +1,101 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of the objects depending on another object, so they can be
+ * invalidated when it is changed.
+ * <p>
+ * Dependents are referenced weakly. This way, text which is shared between
+ * many parents (such as a common prefix) will not keep its parents from being
+ * garbage collected once they are no longer used.
+ * 
+ * @see Dependent
+ */
+public final class Dependents {
+
+	private WeakReference<?>[] refs;
+	private int size;
+
+	/**
+	 * Constructs a new {@code Dependents}.
+	 */
+	public Dependents() {
+		this.refs = new WeakReference<?>[2];
+	}
+
+	/**
+	 * Adds a dependent.
+	 * <p>
+	 * A dependent may be added more than once, in which case it must be
+	 * removed the same number of times to no longer be a dependent.
+	 * 
+	 * @param dependent
+	 *            the dependent to add.
+	 * @throws NullPointerException
+	 *             if {@code dependent} is {@code null}.
+	 */
+	public void add(@NotNull Dependent dependent) {
+		Objects.requireNonNull(dependent, "dependent");
+		if (size >= refs.length) {
+			this.purge();
+			if (size >= refs.length / 2) {
+				this.refs = Arrays.copyOf(refs, refs.length * 2);
+			}
+		}
+		refs[size++] = new WeakReference<>(dependent);
+	}
+
+	/**
+	 * Removes a dependent.
+	 * 
+	 * @param dependent
+	 *            the dependent to remove.
+	 */
+	public void remove(@Nullable Dependent dependent) {
+		if (dependent == null) {
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			if (refs[i].get() == dependent) {
+				System.arraycopy(refs, i + 1, refs, i, size - i - 1);
+				refs[--size] = null;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Invalidates all dependents which have not yet been garbage collected.
+	 * 
+	 * @see Dependent#invalidate()
+	 */
+	public void invalidate() {
+		for (int i = 0; i < size; i++) {
+			Object dependent = refs[i].get();
+			if (dependent != null) {
+				((Dependent) dependent).invalidate();
+			}
+		}
+	}
+
+	/**
+	 * Removes all dependents which have been garbage collected.
+	 */
+	private void purge() {
+		int live = 0;
+		for (int i = 0; i < size; i++) {
+			if (refs[i].get() != null) {
+				refs[live++] = refs[i];
+			}
+		}
+		Arrays.fill(refs, live, size, null);
+		this.size = live;
+	}
+
+}
@@ -0,0 +1,197 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JDK Flight Recorder events emitted by this library. This class must
+ * only be loaded via {@link RichTextEvents}, which first checks that the
+ * Flight Recorder API is present.
+ */
+final class JfrEvents {
+
+	@Name("net.whirvis.jsoncrafter.Serialize")
+	@Label("Rich Text Serialization")
+	@Description("Rich text encoded as JSON")
+	@Category("JSONcrafter")
+	static final class SerializeEvent extends Event {
+
+		@Label("Method")
+		@Description("How the text was encoded")
+		String method;
+
+		@Label("Text Type")
+		@Description("The content type of the text")
+		String textType;
+
+		@Label("Text Class")
+		Class<?> textClass;
+
+		@Label("Node Count")
+		@Description("The number of pieces of text, including nested text")
+		int nodeCount;
+
+		@Label("Depth")
+		@Description("How deeply text is nested")
+		int depth;
+
+		@Label("Output Size")
+		@Description("The size of the JSON as UTF-8, or -1 if the text was"
+				+ " not encoded to a string")
+		@DataAmount
+		long outputSize;
+
+	}
+
+	@Name("net.whirvis.jsoncrafter.Parse")
+	@Label("Rich Text Parsing")
+	@Description("Rich text decoded from JSON")
+	@Category("JSONcrafter")
+	static final class ParseEvent extends Event {
+
+		@Label("Text Type")
+		@Description("The content type of the text")
+		String textType;
+
+		@Label("Text Class")
+		Class<?> textClass;
+
+		@Label("Node Count")
+		@Description("The number of pieces of text, including nested text")
+		int nodeCount;
+
+		@Label("Depth")
+		@Description("How deeply text is nested")
+		int depth;
+
+		@Label("Input Size")
+		@Description("The size of the JSON as UTF-8")
+		@DataAmount
+		long inputSize;
+
+	}
+
+	@Name("net.whirvis.jsoncrafter.Render")
+	@Label("Rich Text Template Rendering")
+	@Description("A rich text template rendered with values")
+	@Category("JSONcrafter")
+	static final class RenderEvent extends Event {
+
+		@Label("Text Type")
+		@Description("The content type of the template text")
+		String textType;
+
+		@Label("Node Count")
+		@Description("The number of pieces of text in the template")
+		int nodeCount;
+
+		@Label("Depth")
+		@Description("How deeply text in the template is nested")
+		int depth;
+
+		@Label("Placeholders")
+		@Description("The number of slots values were written to")
+		int placeholders;
+
+		@Label("Output Size")
+		@Description("The size of the JSON as UTF-8")
+		@DataAmount
+		long outputSize;
+
+	}
+
+	/*
+	 * Checking if an event is enabled does not depend on the instance, so
+	 * these are used to do so without creating a new event each time.
+	 */
+	private static final SerializeEvent SERIALIZE = new SerializeEvent();
+	private static final ParseEvent PARSE = new ParseEvent();
+	private static final RenderEvent RENDER = new RenderEvent();
+
+	private JfrEvents() {
+		/* static class */
+	}
+
+	@Nullable
+	static Object beginSerialize() {
+		if (!SERIALIZE.isEnabled()) {
+			return null;
+		}
+		SerializeEvent event = new SerializeEvent();
+		event.begin();
+		return event;
+	}
+
+	static void commitSerialize(@NotNull Object obj, @NotNull RichText text,
+			@NotNull String method, long outputSize) {
+		SerializeEvent event = (SerializeEvent) obj;
+		event.end();
+		if (event.shouldCommit()) {
+			RichTextStats stats = RichTextAnalyzer.analyze(text);
+			event.method = method;
+			event.textType = text.getType();
+			event.textClass = text.getClass();
+			event.nodeCount = stats.getNodeCount();
+			event.depth = stats.getMaxDepth();
+			event.outputSize = outputSize;
+			event.commit();
+		}
+	}
+
+	@Nullable
+	static Object beginParse() {
+		if (!PARSE.isEnabled()) {
+			return null;
+		}
+		ParseEvent event = new ParseEvent();
+		event.begin();
+		return event;
+	}
+
+	static void commitParse(@NotNull Object obj, @NotNull RichText text,
+			long inputSize) {
+		ParseEvent event = (ParseEvent) obj;
+		event.end();
+		if (event.shouldCommit()) {
+			RichTextStats stats = RichTextAnalyzer.analyze(text);
+			event.textType = text.getType();
+			event.textClass = text.getClass();
+			event.nodeCount = stats.getNodeCount();
+			event.depth = stats.getMaxDepth();
+			event.inputSize = inputSize;
+			event.commit();
+		}
+	}
+
+	@Nullable
+	static Object beginRender() {
+		if (!RENDER.isEnabled()) {
+			return null;
+		}
+		RenderEvent event = new RenderEvent();
+		event.begin();
+		return event;
+	}
+
+	static void commitRender(@NotNull Object obj, @NotNull String textType,
+			int nodeCount, int depth, int placeholders, long outputSize) {
+		RenderEvent event = (RenderEvent) obj;
+		event.end();
+		if (event.shouldCommit()) {
+			event.textType = textType;
+			event.nodeCount = nodeCount;
+			event.depth = depth;
+			event.placeholders = placeholders;
+			event.outputSize = outputSize;
+			event.commit();
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Plain text whose contents are filled in later, when the text it is part of
+ * is rendered via a {@link RichTextTemplate}. Like any other text, it can be
+ * styled and have extras or events. It can also be given as a "with" value of
+ * {@link TranslatedText}.
+ * <p>
+ * When encoded outside of a template, the name of the placeholder in braces
+ * is written in place of its contents. For example, {@code {player}}.
+ *
+ * @see RichTextTemplate
+ */
+public class Placeholder extends RichText {
+
+	/**
+	 * The content of a placeholder. When written by a template, this writes a
+	 * slot for the value to be spliced into later. Slots are recognized by
+	 * {@link RichTextValueEncoders}, so no adapter is needed to write them.
+	 */
+	static final class Slot {
+
+		private final String name;
+
+		private Slot(@NotNull String name) {
+			this.name = name;
+		}
+
+		void write(@NotNull JsonWriter out) throws IOException {
+			if (out instanceof RichTextTemplate.TemplateWriter) {
+				((RichTextTemplate.TemplateWriter) out).slot(name);
+			} else {
+				out.value(this.toString());
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Slot && name.equals(((Slot) obj).name);
+		}
+
+		@Override
+		public String toString() {
+			return "{" + name + "}";
+		}
+
+	}
+
+	private final String name;
+
+	/**
+	 * Constructs a new {@code Placeholder}.
+	 *
+	 * @param name
+	 *            the placeholder name. Values are given for this name when
+	 *            the template is rendered.
+	 * @throws NullPointerException
+	 *             if {@code name} is {@code null}.
+	 */
+	public Placeholder(@NotNull String name) {
+		super("text", new Slot(Objects.requireNonNull(name, "name")));
+		this.name = name;
+	}
+
+	/**
+	 * Returns the placeholder name.
+	 *
+	 * @return the placeholder name.
+	 */
+	@NotNull
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Placeholder contents are given when the template is rendered, and
+	 * cannot be set directly.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if called after construction.
+	 */
+	@Override
+	@NotNull
+	public RichText setContent(@NotNull Object content) {
+		if (!(content instanceof Slot)) {
+			throw new UnsupportedOperationException("placeholder content");
+		}
+		return super.setContent(content);
+	}
+
+}
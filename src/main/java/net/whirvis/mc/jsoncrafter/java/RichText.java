@@ -1,29 +1,47 @@
 package net.whirvis.mc.jsoncrafter.java;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import org.bukkit.ChatColor;
 
-import com.c05mic.generictree.Node;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializer;
-
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
 import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
 
 /**
  * A container for the Raw JSON text format Minecraft uses to send and display
@@ -34,31 +52,135 @@ import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
  * More info on Raw JSON text can be found on the
  * <a href="https://minecraft.fandom.com/wiki/Raw_JSON_text_format">Minecraft
  * Wiki</a>.
+ * <p>
+ * Text is mutable, and is not safe for use by multiple threads at once. To
+ * share text between threads, use {@link #freeze()} to create an immutable
+ * snapshot of it. Frozen text can be read by any number of threads at once
+ * without locking, once it has been safely published (e.g., via a
+ * {@code final} field or a concurrent collection).
+ * <p>
+ * Text is walked without recursion (e.g., when it is written, copied, hashed
+ * or compared), so its extras can be nested arbitrarily deep.
  *
+ * @see RichTextWalker
  * @see PlainText
  * @see TranslatedText
  * @see KeybindText
  */
-public class RichText {
+public class RichText implements Dependent, Cloneable {
 
 	/**
 	 * Wrapper lambda to make {@code RichText} and its children function with
 	 * GSON type hierarchy adapters. To convert an instance of {@code RichText}
 	 * to JSON without GSON, use {@link RichText#toJson()}.
+	 * <p>
+	 * This builds a JSON object for each text before it is written. Prefer
+	 * {@link #ADAPTER} (or {@link RichTextTypeAdapterFactory}), which streams
+	 * text directly to and from JSON.
 	 */
 	public static final JsonSerializer<RichText> SERIALIZER =
 			(src, type, ctx) -> src.toJson();
 
+	/**
+	 * Type adapter which streams {@code RichText} to and from JSON, without
+	 * first building a tree of JSON elements. To have it used for subclasses
+	 * of {@code RichText} as well, register a {@link RichTextTypeAdapterFactory}
+	 * instead.
+	 */
+	public static final TypeAdapter<RichText> ADAPTER =
+			new TypeAdapter<RichText>() {
+
+				@Override
+				public void write(JsonWriter out, RichText value)
+						throws IOException {
+					if (value == null) {
+						out.nullValue();
+					} else {
+						value.writeJson(out);
+					}
+				}
+
+				@Override
+				public RichText read(JsonReader in) throws IOException {
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						return null;
+					}
+					return RichTextReader.readText(in);
+				}
+
+			};
+
 	/*
 	 * We're required to create our own GSON instance stop null values from
 	 * being serialized. For whatever reason, the toString() built into JSON
 	 * objects will serialize null values by default.
 	 */
 	public static Gson GSON = new GsonBuilder()
-			.registerTypeHierarchyAdapter(RichText.class, RichText.SERIALIZER)
-			.registerTypeHierarchyAdapter(TextEvent.class, TextEvent.SERIALIZER)
+			.registerTypeAdapterFactory(new RichTextTypeAdapterFactory())
 			.create();
 
+	/**
+	 * Counts the text encoded by {@link RichText#toString()} when metrics are
+	 * being recorded, and records which text had its JSON cached.
+	 */
+	private static class MetricsWriter extends RichTextWriter {
+
+		private final RichTextMetrics metrics;
+		private int nodes;
+
+		private MetricsWriter(@NotNull Appendable out,
+				@NotNull RichTextMetrics metrics) {
+			super(out, true);
+			this.metrics = metrics;
+		}
+
+		@Override
+		void enterText(@NotNull RichText text) {
+			this.nodes += 1;
+			metrics.recordCacheMiss(text);
+		}
+
+		@Override
+		void splicedText(@NotNull RichText text) {
+			metrics.recordCacheHit(text);
+		}
+
+	}
+
+	/*
+	 * Metrics are only measured when set, so encoding text costs nothing
+	 * extra otherwise. This is checked via identity, as it is done often.
+	 */
+	private static volatile RichTextMetrics metrics = RichTextMetrics.NONE;
+
+	private static final String HOVER_EVENT = "hoverEvent";
+	private static final String CLICK_EVENT = "clickEvent";
+
+	/*
+	 * Subclasses written before streaming was supported only override the
+	 * serializeText(JsonObject) method. Since building a JSON object for text
+	 * which has nothing to add is wasteful, this keeps track of which classes
+	 * actually need it.
+	 */
+	private static final ClassValue<Boolean> SERIALIZES_TEXT =
+			new ClassValue<Boolean>() {
+				@Override
+				protected Boolean computeValue(Class<?> type) {
+					for (Class<?> c = type; c != RichText.class; c =
+							c.getSuperclass()) {
+						try {
+							c.getDeclaredMethod("serializeText",
+									JsonObject.class);
+							return true;
+						} catch (NoSuchMethodException e) {
+							/* check the superclass next */
+						}
+					}
+					return false;
+				}
+			};
+
 	/**
 	 * Takes in a value and returns it, unless it is {@code null}. In which
 	 * case, a given fallback value is returned instead.
@@ -154,7 +276,7 @@ public class RichText {
 		while (valuesI.hasNext()) {
 			Object value = valuesI.next();
 			if (value != null) {
-				jsonTexts.add(GSON.toJsonTree(persuade(value)));
+				jsonTexts.add(ADAPTER.toJsonTree(persuade(value)));
 			}
 		}
 		return !jsonTexts.isEmpty() ? jsonTexts : null;
@@ -189,8 +311,26 @@ public class RichText {
 	 */
 	@Nullable
 	public static String toString(@Nullable Iterable<?> texts) {
-		JsonElement json = toJson(texts);
-		return json != null ? GSON.toJson(json) : null;
+		if (texts == null) {
+			return null;
+		}
+
+		boolean empty = true;
+		StringWriter out = new StringWriter();
+		try {
+			JsonWriter writer = new RichTextWriter(out, true);
+			writer.beginArray();
+			for (Object value : texts) {
+				if (value != null) {
+					persuade(value).writeJson(writer);
+					empty = false;
+				}
+			}
+			writer.endArray();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return !empty ? out.toString() : null;
 	}
 
 	/**
@@ -206,8 +346,7 @@ public class RichText {
 	 */
 	@Nullable
 	public static String toString(@Nullable Object... texts) {
-		JsonElement json = toJson(texts);
-		return json != null ? GSON.toJson(json) : null;
+		return toString(texts != null ? Arrays.asList(texts) : null);
 	}
 
 	/**
@@ -294,18 +433,108 @@ public class RichText {
 		return getContents(null, values);
 	}
 
+	/**
+	 * Decodes text from JSON. The same shorthands accepted by the game are
+	 * accepted here, such as a bare string or an array of siblings.
+	 * 
+	 * @param json
+	 *            the JSON to decode.
+	 * @return the decoded text.
+	 * @throws NullPointerException
+	 *             if {@code json} is {@code null}.
+	 * @throws JsonSyntaxException
+	 *             if {@code json} is not valid text.
+	 * @see RichTextReader
+	 */
+	@NotNull
+	public static RichText fromJson(@NotNull String json) {
+		Objects.requireNonNull(json, "json");
+		Object jfrEvent = RichTextEvents.beginParse();
+		try {
+			RichTextReader in = new RichTextReader(new StringReader(json));
+			RichText text = in.nextText();
+			if (in.peek() != JsonToken.END_DOCUMENT) {
+				throw new JsonSyntaxException("expected end of document");
+			}
+			if (jfrEvent != null) {
+				RichTextEvents.commitParse(jfrEvent, text,
+						RichTextAnalyzer.utf8Length(json));
+			}
+			return text;
+		} catch (MalformedJsonException e) {
+			throw new JsonSyntaxException(e);
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+	}
+
+	/**
+	 * Returns the metrics text encoding is recorded to.
+	 * 
+	 * @return the metrics text encoding is recorded to,
+	 *         {@link RichTextMetrics#NONE} if none have been set.
+	 */
+	@NotNull
+	public static RichTextMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics text encoding is recorded to. This applies to all
+	 * text, on all threads.
+	 * 
+	 * @param metrics
+	 *            the metrics to record to. May be {@code null} to stop
+	 *            recording metrics.
+	 * @see RichTextMetricsRecorder
+	 */
+	public static void setMetrics(@Nullable RichTextMetrics metrics) {
+		RichText.metrics = nullFallback(metrics, RichTextMetrics.NONE);
+	}
+
 	private final String type;
 	private Object content;
-	private Node<RichText> extra;
-	private String color;
-	private String font;
-	private Boolean bold;
-	private Boolean italic;
-	private Boolean strikethrough;
-	private Boolean underlined;
-	private Boolean obfuscated;
-	private String insertion;
-	private HashMap<String, TextEvent> events;
+	private RichText[] extra;
+	private int extraCount;
+	private Style style;
+
+	/*
+	 * The game only has click and hover events, so each of them is kept in a
+	 * slot of its own. Events of any other type are kept in a map, which is
+	 * only created when one is added. These are always written in this order
+	 * (hover, click, then any others).
+	 */
+	private TextEvent hoverEvent;
+	private TextEvent clickEvent;
+	private LinkedHashMap<String, TextEvent> otherEvents;
+
+	/*
+	 * The JSON and hash code of this text are cached after they have been
+	 * computed, until this text (or one of its dependencies) changes. When a
+	 * text is dirty, there is nothing cached which depends on it. As such,
+	 * invalidation does not need to be propagated any further up than the
+	 * first dirty text.
+	 */
+	private String json;
+	private int hash;
+	private boolean dirty = true;
+	private boolean frozen;
+
+	/*
+	 * Most text only ever has one dependent (the text it is an extra of). As
+	 * such, the first is referenced directly, and the rest are only kept
+	 * track of once there is more than one. Either way, they are referenced
+	 * weakly, for the same reason as they are by Dependents.
+	 */
+	private WeakReference<Dependent> dependent;
+	private Dependents dependents;
+
+	/*
+	 * The UTF-8 encoded JSON of frozen text, computed when it is frozen. This
+	 * is package-private so RichTextEncoder can copy from it directly. It must
+	 * never be handed out or written to.
+	 */
+	byte[] utf8;
 
 	/**
 	 * Constructs a new instance of {@code RichText} and sets its parameters to
@@ -320,9 +549,8 @@ public class RichText {
 	 */
 	public RichText(@NotNull String type, @NotNull Object content) {
 		this.type = type;
+		this.style = Style.EMPTY;
 		this.setContent(content);
-		this.extra = new Node<>(this);
-		this.events = new HashMap<>();
 	}
 
 	/**
@@ -356,7 +584,16 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setContent(@NotNull Object content) {
-		this.content = Objects.requireNonNull(content, "content");
+		this.checkNotFrozen();
+		Objects.requireNonNull(content, "content");
+		if (this.content instanceof RichText) {
+			((RichText) this.content).removeDependent(this);
+		}
+		if (content instanceof RichText) {
+			((RichText) content).addDependent(this);
+		}
+		this.content = content;
+		this.invalidate();
 		return this;
 	}
 
@@ -370,18 +607,135 @@ public class RichText {
 		/* optional override */
 	}
 
+	/**
+	 * Writes the text.
+	 * <p>
+	 * By default, this encodes the text via {@link #serializeText(JsonObject)}
+	 * and writes the result. Subclasses which override that method should also
+	 * override this one, so no intermediate JSON object must be created.
+	 * 
+	 * @param out
+	 *            the writer to write to.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	protected void writeText(@NotNull JsonWriter out) throws IOException {
+		if (SERIALIZES_TEXT.get(this.getClass())) {
+			JsonObject json = new JsonObject();
+			this.serializeText(json);
+			RichTextWriter.writeMembers(out, json);
+		}
+	}
+
+	/**
+	 * A read-only view of the extras of a text.
+	 */
+	private class ExtraView extends AbstractList<RichText>
+			implements RandomAccess {
+
+		@Override
+		public RichText get(int index) {
+			checkExtraIndex(index);
+			return extra[index];
+		}
+
+		@Override
+		public int size() {
+			return extraCount;
+		}
+
+	}
+
 	/**
 	 * Returns the child text components of this text.
+	 * <p>
+	 * The returned list is a read-only view, which reflects any changes later
+	 * made to the extras of this text. No copy of the extras is made.
 	 * 
 	 * @return the child text components of this text.
 	 */
 	@NotNull
 	public List<RichText> getExtra() {
-		List<RichText> extraData = new ArrayList<>();
-		for (Node<RichText> node : extra.getChildren()) {
-			extraData.add(node.getData());
+		return extraCount > 0 ? new ExtraView() : Collections.emptyList();
+	}
+
+	/*
+	 * These are used by RichTextWalker, so it can walk extras without having
+	 * to create a view of them for each text.
+	 */
+
+	final int extraCount() {
+		return this.extraCount;
+	}
+
+	@NotNull
+	final RichText extraAt(int index) {
+		return extra[index];
+	}
+
+	/**
+	 * Visits this text, its events and its extras depth-first. Nothing is
+	 * allocated while visiting, as the extras of text are never copied.
+	 * 
+	 * @param visitor
+	 *            the visitor to notify.
+	 * @throws NullPointerException
+	 *             if {@code visitor} is {@code null}.
+	 * @see RichTextWalker#walk(RichText, RichTextVisitor)
+	 */
+	public final void accept(@NotNull RichTextVisitor visitor) {
+		RichTextWalker.forThread().walk(this, visitor);
+	}
+
+	/**
+	 * Returns a spliterator over this text and all of its extras, in
+	 * depth-first order. It splits by handing off whole subtrees of extras,
+	 * so large text can be processed in parallel. This text must not be
+	 * changed while it is being traversed.
+	 * 
+	 * @return a spliterator over this text and all of its extras.
+	 * @see #stream()
+	 */
+	@NotNull
+	public final Spliterator<RichText> spliterator() {
+		return new RichTextSpliterator(this);
+	}
+
+	/**
+	 * Returns a stream of this text and all of its extras, in depth-first
+	 * order. Text shown by events is not included.
+	 * <p>
+	 * This text must not be changed while the stream is in use. To process
+	 * text in parallel while it may still be changed, stream a
+	 * {@link #freeze() frozen} snapshot of it instead.
+	 * 
+	 * @return a stream of this text and all of its extras.
+	 * @see #spliterator()
+	 * @see Stream#parallel()
+	 */
+	@NotNull
+	public final Stream<RichText> stream() {
+		return StreamSupport.stream(this.spliterator(), false);
+	}
+
+	private void checkExtraIndex(int index) {
+		if (index < 0 || index >= extraCount) {
+			throw new IndexOutOfBoundsException(
+					"index: " + index + ", size: " + extraCount);
+		}
+	}
+
+	/*
+	 * Most text (e.g., each character of a gradient) has no extras. As such,
+	 * the array holding them is only created once the first is added.
+	 */
+	private void growExtra(int minCapacity) {
+		if (extra == null) {
+			this.extra = new RichText[Math.max(minCapacity, 2)];
+		} else if (minCapacity > extra.length) {
+			int capacity = Math.max(minCapacity, extra.length * 2);
+			this.extra = Arrays.copyOf(extra, capacity);
 		}
-		return Collections.unmodifiableList(extraData);
 	}
 
 	/**
@@ -400,11 +754,18 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText addExtra(@NotNull Iterable<RichText> texts) {
+		this.checkNotFrozen();
 		Objects.requireNonNull(texts, "texts");
 		for (RichText text : texts) {
 			Objects.requireNonNull(text, "text");
-			extra.addChild(text.extra);
+			if (text == this) {
+				throw new IllegalArgumentException("text is this");
+			}
+			this.growExtra(extraCount + 1);
+			extra[extraCount++] = text;
+			text.addDependent(this);
 		}
+		this.invalidate();
 		return this;
 	}
 
@@ -431,8 +792,65 @@ public class RichText {
 		return this.addExtra(Arrays.asList(texts));
 	}
 
+	/**
+	 * Replaces the child text component at the given index.
+	 * 
+	 * @param index
+	 *            the index of the child component to replace.
+	 * @param text
+	 *            the new child component.
+	 * @return this text.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code text} is {@code this}.
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code index} is out of range.
+	 */
+	@NotNull
+	public RichText setExtra(int index, @NotNull RichText text) {
+		this.checkNotFrozen();
+		Objects.requireNonNull(text, "text");
+		if (text == this) {
+			throw new IllegalArgumentException("text is this");
+		}
+		this.checkExtraIndex(index);
+		RichText replaced = extra[index];
+		extra[index] = text;
+		replaced.removeDependent(this);
+		text.addDependent(this);
+		this.invalidate();
+		return this;
+	}
+
+	/**
+	 * Removes the child text component at the given index.
+	 * 
+	 * @param index
+	 *            the index of the child component to remove.
+	 * @return this text.
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code index} is out of range.
+	 */
+	@NotNull
+	public RichText removeExtra(int index) {
+		this.checkNotFrozen();
+		this.checkExtraIndex(index);
+		RichText removed = extra[index];
+		System.arraycopy(extra, index + 1, extra, index,
+				extraCount - index - 1);
+		extra[--extraCount] = null;
+		removed.removeDependent(this);
+		this.invalidate();
+		return this;
+	}
+
 	/**
 	 * Removes the given child text components from this text.
+	 * <p>
+	 * Child components are matched by identity rather than by equality. That
+	 * is, only the exact instances given are removed. This way, no child must
+	 * be hashed or compared to find those being removed.
 	 * 
 	 * @param texts
 	 *            the child components.
@@ -440,22 +858,37 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText removeExtra(@Nullable Iterable<RichText> texts) {
+		this.checkNotFrozen();
 		if (texts == null) {
 			return this;
 		}
 
 		/* cache values for O(n) rather than O(n^2) */
-		Map<RichText, Node<RichText>> extras = new HashMap<>();
-		for (Node<RichText> node : extra.getChildren()) {
-			extras.put(node.getData(), node);
+		Set<RichText> removing =
+				Collections.newSetFromMap(new IdentityHashMap<>());
+		for (RichText text : texts) {
+			if (text != null) {
+				removing.add(text);
+			}
+		}
+		if (removing.isEmpty()) {
+			return this;
 		}
 
-		for (RichText text : texts) {
-			Node<RichText> node = extras.get(text);
-			if (node != null) {
-				extra.removeChild(node);
+		int kept = 0;
+		for (int i = 0; i < extraCount; i++) {
+			RichText child = extra[i];
+			if (removing.contains(child)) {
+				child.removeDependent(this);
+			} else {
+				extra[kept++] = child;
 			}
 		}
+		if (kept < extraCount) {
+			Arrays.fill(extra, kept, extraCount, null);
+			this.extraCount = kept;
+			this.invalidate();
+		}
 		return this;
 	}
 
@@ -481,7 +914,46 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText clearExtra() {
-		extra.removeChildren();
+		this.checkNotFrozen();
+		for (int i = 0; i < extraCount; i++) {
+			extra[i].removeDependent(this);
+		}
+		this.extra = null;
+		this.extraCount = 0;
+		this.invalidate();
+		return this;
+	}
+
+	/**
+	 * Returns the style of this text.
+	 * <p>
+	 * The returned style is shared, and is not affected by any later changes
+	 * to the style of this text.
+	 * 
+	 * @return the style of this text.
+	 */
+	@NotNull
+	public Style getStyle() {
+		return this.style;
+	}
+
+	/**
+	 * Sets the style of this text.
+	 * <p>
+	 * This replaces the color, font, formatting and insertion of this text all
+	 * at once. As styles are shared, this is cheaper than setting each of them
+	 * individually when many texts have the same style.
+	 * 
+	 * @param style
+	 *            the style. May be {@code null} to have all style parameters
+	 *            left absent from the encoded JSON.
+	 * @return this text.
+	 */
+	@NotNull
+	public RichText setStyle(@Nullable Style style) {
+		this.checkNotFrozen();
+		this.style = style != null ? style : Style.EMPTY;
+		this.invalidate();
 		return this;
 	}
 
@@ -495,7 +967,7 @@ public class RichText {
 	 */
 	@NotNull
 	public String getColor() {
-		return nullFallback(color, "white");
+		return nullFallback(style.getColor(), "white");
 	}
 
 	/**
@@ -508,7 +980,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setColor(@Nullable String color) {
-		this.color = color;
+		this.checkNotFrozen();
+		this.style = style.withColor(color);
+		this.invalidate();
 		return this;
 	}
 
@@ -559,7 +1033,7 @@ public class RichText {
 	 */
 	@NotNull
 	public String getFont() {
-		return nullFallback(font, "minecraft:default");
+		return nullFallback(style.getFont(), "minecraft:default");
 	}
 
 	/**
@@ -572,7 +1046,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setFont(@Nullable String font) {
-		this.font = font;
+		this.checkNotFrozen();
+		this.style = style.withFont(font);
+		this.invalidate();
 		return this;
 	}
 
@@ -584,7 +1060,7 @@ public class RichText {
 	 * @return {@code true} if this text is bold, {@code false} otherwise.
 	 */
 	public boolean isBold() {
-		return nullFallback(bold, false);
+		return nullFallback(style.getBold(), false);
 	}
 
 	/**
@@ -598,7 +1074,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setBold(@Nullable Boolean bold) {
-		this.bold = bold;
+		this.checkNotFrozen();
+		this.style = style.withBold(bold);
+		this.invalidate();
 		return this;
 	}
 
@@ -610,7 +1088,7 @@ public class RichText {
 	 * @return {@code true} if this text is italic, {@code false} otherwise.
 	 */
 	public boolean isItalic() {
-		return nullFallback(italic, false);
+		return nullFallback(style.getItalic(), false);
 	}
 
 	/**
@@ -624,7 +1102,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setItalic(@Nullable Boolean italic) {
-		this.italic = italic;
+		this.checkNotFrozen();
+		this.style = style.withItalic(italic);
+		this.invalidate();
 		return this;
 	}
 
@@ -636,7 +1116,7 @@ public class RichText {
 	 * @return {@code true} if this text is underlined, {@code false} otherwise.
 	 */
 	public boolean isUnderlined() {
-		return nullFallback(underlined, false);
+		return nullFallback(style.getUnderlined(), false);
 	}
 
 	/**
@@ -650,7 +1130,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setUnderlined(@Nullable Boolean underlined) {
-		this.underlined = underlined;
+		this.checkNotFrozen();
+		this.style = style.withUnderlined(underlined);
+		this.invalidate();
 		return this;
 	}
 
@@ -663,7 +1145,7 @@ public class RichText {
 	 *         otherwise.
 	 */
 	public boolean isStrikethrough() {
-		return nullFallback(strikethrough, false);
+		return nullFallback(style.getStrikethrough(), false);
 	}
 
 	/**
@@ -677,7 +1159,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setStrikethrough(@Nullable Boolean strikethrough) {
-		this.strikethrough = strikethrough;
+		this.checkNotFrozen();
+		this.style = style.withStrikethrough(strikethrough);
+		this.invalidate();
 		return this;
 	}
 
@@ -689,7 +1173,7 @@ public class RichText {
 	 * @return {@code true} if this text is obfuscated, {@code false} otherwise.
 	 */
 	public boolean isObfuscated() {
-		return nullFallback(obfuscated, false);
+		return nullFallback(style.getObfuscated(), false);
 	}
 
 	/**
@@ -703,7 +1187,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setObfuscated(@Nullable Boolean obfuscated) {
-		this.obfuscated = obfuscated;
+		this.checkNotFrozen();
+		this.style = style.withObfuscated(obfuscated);
+		this.invalidate();
 		return this;
 	}
 
@@ -718,7 +1204,7 @@ public class RichText {
 	 */
 	@NotNull
 	public String getInsertion() {
-		return nullFallback(insertion, "");
+		return nullFallback(style.getInsertion(), "");
 	}
 
 	/**
@@ -732,7 +1218,9 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText setInsertion(@Nullable String insertion) {
-		this.insertion = insertion;
+		this.checkNotFrozen();
+		this.style = style.withInsertion(insertion);
+		this.invalidate();
 		return this;
 	}
 
@@ -743,7 +1231,27 @@ public class RichText {
 	 *         otherwise.
 	 */
 	public boolean hasEvents() {
-		return !events.isEmpty();
+		return hoverEvent != null || clickEvent != null
+				|| otherEvents != null;
+	}
+
+	/*
+	 * Used by RichTextWalker, so events can be visited without a copy of
+	 * them being made.
+	 */
+	final void visitEvents(@NotNull RichTextWalker walker,
+			@NotNull RichTextVisitor visitor) {
+		if (hoverEvent != null) {
+			walker.visitEvent(this, hoverEvent, visitor);
+		}
+		if (clickEvent != null) {
+			walker.visitEvent(this, clickEvent, visitor);
+		}
+		if (otherEvents != null) {
+			for (TextEvent event : otherEvents.values()) {
+				walker.visitEvent(this, event, visitor);
+			}
+		}
 	}
 
 	/**
@@ -755,7 +1263,7 @@ public class RichText {
 	 *         {@code false} otherwise.
 	 */
 	public boolean hasEvent(@Nullable String type) {
-		return events.containsKey(type);
+		return this.getEvent(type) != null;
 	}
 
 	/**
@@ -767,17 +1275,100 @@ public class RichText {
 	 *         otherwise.
 	 */
 	public boolean hasEvent(@Nullable TextEvent event) {
-		return events.containsValue(event);
+		return event != null && event.equals(this.getEvent(event.getType()));
 	}
 
 	/**
-	 * Returns the text events.
+	 * Returns the text event of a given type.
+	 * 
+	 * @param type
+	 *            the event type.
+	 * @return the text event of {@code type}, {@code null} if this text has
+	 *         none.
+	 */
+	@Nullable
+	public TextEvent getEvent(@Nullable String type) {
+		if (HOVER_EVENT.equals(type)) {
+			return this.hoverEvent;
+		} else if (CLICK_EVENT.equals(type)) {
+			return this.clickEvent;
+		}
+		return otherEvents != null ? otherEvents.get(type) : null;
+	}
+
+	/**
+	 * Returns the click event of this text.
+	 * 
+	 * @return the click event of this text, {@code null} if this text has
+	 *         none.
+	 */
+	@Nullable
+	public ClickEvent getClickEvent() {
+		if (clickEvent instanceof ClickEvent) {
+			return (ClickEvent) clickEvent;
+		}
+		return null; /* none, or not a ClickEvent */
+	}
+
+	/**
+	 * Returns the hover event of this text.
+	 * 
+	 * @return the hover event of this text, {@code null} if this text has
+	 *         none.
+	 */
+	@Nullable
+	public HoverEvent getHoverEvent() {
+		if (hoverEvent instanceof HoverEvent) {
+			return (HoverEvent) hoverEvent;
+		}
+		return null; /* none, or not a HoverEvent */
+	}
+
+	/**
+	 * Returns the text events. Events added to or removed from this text
+	 * afterwards are not reflected in the returned collection.
 	 * 
 	 * @return the text events.
 	 */
 	@NotNull
 	public Collection<TextEvent> getEvents() {
-		return Collections.unmodifiableCollection(events.values());
+		if (!this.hasEvents()) {
+			return Collections.emptyList();
+		}
+		List<TextEvent> events = new ArrayList<>();
+		if (hoverEvent != null) {
+			events.add(hoverEvent);
+		}
+		if (clickEvent != null) {
+			events.add(clickEvent);
+		}
+		if (otherEvents != null) {
+			events.addAll(otherEvents.values());
+		}
+		return Collections.unmodifiableList(events);
+	}
+
+	/*
+	 * Puts an event in its slot (or the map, for other types) without any
+	 * checks or invalidation, returning the event it replaced.
+	 */
+	@Nullable
+	private TextEvent putEvent(@NotNull TextEvent event) {
+		TextEvent replaced;
+		String type = event.getType();
+		if (HOVER_EVENT.equals(type)) {
+			replaced = this.hoverEvent;
+			this.hoverEvent = event;
+		} else if (CLICK_EVENT.equals(type)) {
+			replaced = this.clickEvent;
+			this.clickEvent = event;
+		} else {
+			if (otherEvents == null) {
+				this.otherEvents = new LinkedHashMap<>();
+			}
+			replaced = otherEvents.put(type, event);
+		}
+		return replaced;
 	}
 
 	/**
@@ -795,8 +1386,14 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText addEvent(@NotNull TextEvent event) {
+		this.checkNotFrozen();
 		Objects.requireNonNull(event, "event");
-		events.put(event.getType(), event);
+		TextEvent replaced = this.putEvent(event);
+		if (replaced != null) {
+			replaced.removeDependent(this);
+		}
+		event.addDependent(this);
+		this.invalidate();
 		return this;
 	}
 
@@ -809,60 +1406,857 @@ public class RichText {
 	 */
 	@NotNull
 	public RichText removeEvent(@Nullable TextEvent event) {
-		if (event != null) {
-			events.remove(event.getType(), event);
+		this.checkNotFrozen();
+		if (!this.hasEvent(event)) {
+			return this;
+		}
+
+		String type = event.getType();
+		TextEvent removed;
+		if (HOVER_EVENT.equals(type)) {
+			removed = this.hoverEvent;
+			this.hoverEvent = null;
+		} else if (CLICK_EVENT.equals(type)) {
+			removed = this.clickEvent;
+			this.clickEvent = null;
+		} else {
+			removed = otherEvents.remove(type);
+			if (otherEvents.isEmpty()) {
+				this.otherEvents = null;
+			}
 		}
+		removed.removeDependent(this);
+		this.invalidate();
 		return this;
 	}
 
+	/**
+	 * Returns if this text is frozen.
+	 * 
+	 * @return {@code true} if this text is frozen, {@code false} otherwise.
+	 * @see #freeze()
+	 */
+	public final boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Ensures this text is not frozen. Subclasses must call this before making
+	 * any changes to their own parameters.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this text is frozen.
+	 */
+	protected final void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("text is frozen");
+		}
+	}
+
+	/**
+	 * Copies the text specific parameters of this text. This is called on a
+	 * newly cloned text, whose fields are still shared with the original.
+	 * Subclasses which have mutable parameters of their own (such as nested
+	 * text) must override this method to replace them with copies.
+	 * 
+	 * @param freeze
+	 *            {@code true} if the copy is being frozen, in which case nested
+	 *            text should be copied via
+	 *            {@link #copyNested(RichText, boolean)}.
+	 */
+	protected void copyText(boolean freeze) {
+		/* optional override */
+	}
+
+	/**
+	 * Copies text nested inside of other text, or inside of an event. Unlike
+	 * {@link #freeze()}, a frozen copy is not encoded ahead of time. This is
+	 * because the JSON of nested text is only ever asked for by whatever it
+	 * is nested in, which encodes it anyway.
+	 * 
+	 * @param text
+	 *            the nested text.
+	 * @param freeze
+	 *            {@code true} if the copy should be frozen.
+	 * @return a copy of {@code text}. If {@code freeze} is {@code true} and
+	 *         {@code text} is already frozen, it is returned as is.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	@NotNull
+	public static RichText copyNested(@NotNull RichText text,
+			boolean freeze) {
+		Objects.requireNonNull(text, "text");
+		if (freeze && text.frozen) {
+			return text; /* frozen text can be shared */
+		}
+		return text.copy(freeze);
+	}
+
+	@NotNull
+	private RichText copy(boolean freeze) {
+		return this.copy(freeze, true);
+	}
+
+	@NotNull
+	private RichText copy(boolean freeze, boolean withExtra) {
+		RichText copy = this.copyIgnoreExtra(freeze);
+		if (withExtra && extraCount > 0) {
+			copyExtra(this, copy, freeze);
+		}
+		copy.frozen = freeze;
+		return copy;
+	}
+
+	/*
+	 * Copies everything but the extras of this text. The copy is left
+	 * unfrozen, so its extras can still be added to it.
+	 */
+	@NotNull
+	private RichText copyIgnoreExtra(boolean freeze) {
+		RichText copy;
+		try {
+			copy = (RichText) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e); /* we implement Cloneable */
+		}
+
+		copy.json = null;
+		copy.hash = 0;
+		copy.dirty = true;
+		copy.dependent = null;
+		copy.dependents = null;
+		copy.frozen = false;
+		copy.utf8 = null;
+		copy.extra = null;
+		copy.extraCount = 0;
+
+		if (content instanceof RichText) {
+			RichText nested = copyNested((RichText) content, freeze);
+			nested.addDependent(copy);
+			copy.content = nested;
+		}
+
+		copy.hoverEvent = null;
+		copy.clickEvent = null;
+		copy.otherEvents = null;
+		for (TextEvent event : this.getEvents()) {
+			event = freeze ? event.freeze() : event.copy();
+			event.addDependent(copy);
+			copy.putEvent(event);
+		}
+
+		copy.copyText(freeze);
+		return copy;
+	}
+
+	/*
+	 * Copies the extras of text into its copy depth-first. This keeps its own
+	 * stack of the text being copied (along with its copy), so the Java stack
+	 * does not grow with how deeply extras are nested. Each copy is frozen
+	 * once all of its extras have been added to it. Frozen text never changes,
+	 * so extras of frozen text are not given it as a dependent.
+	 */
+	private static void copyExtra(@NotNull RichText text,
+			@NotNull RichText copy, boolean freeze) {
+		RichText[] texts = new RichText[16];
+		RichText[] copies = new RichText[16];
+		texts[0] = text;
+		copies[0] = copy;
+		copy.extra = new RichText[text.extraCount];
+		int size = 1;
+
+		while (size > 0) {
+			int top = size - 1;
+			RichText parent = texts[top];
+			RichText parentCopy = copies[top];
+			int index = parentCopy.extraCount; /* extras copied so far */
+			if (index >= parent.extraCount) {
+				texts[top] = null;
+				copies[top] = null;
+				size -= 1;
+				parentCopy.frozen = freeze;
+				continue;
+			}
+
+			RichText child = parent.extra[index];
+			RichText childCopy;
+			if (freeze && child.frozen) {
+				childCopy = child; /* frozen text can be shared */
+			} else {
+				childCopy = child.copyIgnoreExtra(freeze);
+				if (child.extraCount <= 0) {
+					childCopy.frozen = freeze;
+				} else {
+					if (size >= texts.length) {
+						int capacity = size * 2;
+						texts = Arrays.copyOf(texts, capacity);
+						copies = Arrays.copyOf(copies, capacity);
+					}
+					texts[size] = child;
+					copies[size] = childCopy;
+					childCopy.extra = new RichText[child.extraCount];
+					size += 1;
+				}
+			}
+
+			if (!freeze) {
+				childCopy.addDependent(parentCopy);
+			}
+			parentCopy.extra[index] = childCopy;
+			parentCopy.extraCount = index + 1;
+		}
+	}
+
+	/**
+	 * Returns a deep copy of this text. The copy has the same parameters,
+	 * extras and events as this text, but none of them are shared. As such,
+	 * changes to the copy are not reflected in this text, and vice versa.
+	 * <p>
+	 * The copy is never frozen. This makes it the way to "thaw" frozen text
+	 * back into text which can be changed.
+	 * 
+	 * @return a deep copy of this text.
+	 */
+	@NotNull
+	public RichText copy() {
+		return this.copy(false);
+	}
+
+	/*
+	 * Used when text is broken apart into pieces, so that extras are not
+	 * copied only to be removed from the copy afterwards.
+	 */
+	@NotNull
+	RichText copyWithoutExtra() {
+		return this.copy(false, false);
+	}
+
+	/**
+	 * Returns a frozen snapshot of this text.
+	 * <p>
+	 * Frozen text (along with its extras, events, and all other nested text)
+	 * cannot be changed. Any attempt to do so results in an
+	 * {@link UnsupportedOperationException}. The JSON and UTF-8 encoded JSON of
+	 * the snapshot, along with the hash codes of it and all of its extras, are
+	 * computed ahead of time. As such, they are never computed by the threads
+	 * reading it.
+	 * <p>
+	 * The JSON of the text nested inside of the snapshot (e.g., its extras, or
+	 * the text of its hover events) is not computed ahead of time, as doing
+	 * so would mean encoding each text once for every text it is nested in.
+	 * Nor is it given UTF-8 encoded JSON of its own. Its JSON is computed
+	 * when first asked for, and then cached. Multiple threads may compute it
+	 * at once, but they will all compute (and cache) the same JSON.
+	 * <p>
+	 * Later changes made to this text are not reflected in the snapshot. Use
+	 * {@link #copy()} to get a copy of the snapshot which can be changed.
+	 * 
+	 * @return a frozen snapshot of this text, or this text itself if it is
+	 *         already frozen.
+	 */
+	@NotNull
+	public RichText freeze() {
+		if (frozen) {
+			return this;
+		}
+		RichText frozen = copyNested(this, true);
+		frozen.utf8 = frozen.toString().getBytes(StandardCharsets.UTF_8);
+		frozen.hashCode();
+		return frozen;
+	}
+
+	/*
+	 * Used by RichTextPipeline. This is like freeze(), but the snapshot is
+	 * not encoded (nor is any text nested in it, such as the text of its
+	 * hover events), so taking it is cheap. Snapshots are never handed out,
+	 * so only the thread which encodes one ever touches its cached JSON.
+	 */
+	@NotNull
+	final RichText snapshot() {
+		return copyNested(this, true);
+	}
+
+	/**
+	 * Returns the encoded JSON of this text as UTF-8.
+	 * <p>
+	 * For text returned by {@link #freeze()}, this is computed ahead of time.
+	 * A new array is still returned on each call, so the snapshot cannot be
+	 * changed through it.
+	 * 
+	 * @return the encoded JSON as UTF-8.
+	 * @see #toString()
+	 */
+	@NotNull
+	public byte[] toUtf8() {
+		if (utf8 != null) {
+			return utf8.clone();
+		}
+		return this.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
 	/**
 	 * Serializes the text into JSON.
 	 * 
 	 * @return the encoded JSON.
 	 */
 	public final JsonObject toJson() {
+		RichTextMetrics metrics = RichText.metrics;
+		long start = metrics != RichTextMetrics.NONE ? System.nanoTime() : 0L;
+		Object jfrEvent = RichTextEvents.beginSerialize();
+
 		JsonObject json = new JsonObject();
-		json.add(type, GSON.toJsonTree(content));
+		json.add(type, RichTextValueEncoders.toJsonTree(content));
 		this.serializeText(json);
 
-		List<Node<RichText>> children = extra.getChildren();
-		if (!children.isEmpty()) {
+		if (extraCount > 0) {
 			JsonArray extraJson = new JsonArray();
-			for (Node<RichText> child : children) {
-				extraJson.add(GSON.toJsonTree(child.getData()));
+			for (int i = 0; i < extraCount; i++) {
+				extraJson.add(ADAPTER.toJsonTree(extra[i]));
 			}
 			json.add("extra", extraJson);
 		}
 
-		json.addProperty("color", color);
-		json.addProperty("font", font);
-		json.addProperty("bold", bold);
-		json.addProperty("italic", italic);
-		json.addProperty("strikethrough", strikethrough);
-		json.addProperty("underlined", underlined);
-		json.addProperty("obfuscated", obfuscated);
-		json.addProperty("insertion", insertion);
+		json.addProperty("color", style.getColor());
+		json.addProperty("font", style.getFont());
+		json.addProperty("bold", style.getBold());
+		json.addProperty("italic", style.getItalic());
+		json.addProperty("strikethrough", style.getStrikethrough());
+		json.addProperty("underlined", style.getUnderlined());
+		json.addProperty("obfuscated", style.getObfuscated());
+		json.addProperty("insertion", style.getInsertion());
+
+		for (TextEvent event : this.getEvents()) {
+			json.add(event.getType(), TextEvent.ADAPTER.toJsonTree(event));
+		}
 
-		for (TextEvent event : events.values()) {
-			json.add(event.getType(), GSON.toJsonTree(event));
+		if (metrics != RichTextMetrics.NONE) {
+			long nanos = System.nanoTime() - start;
+			metrics.recordToJson(this, nanos, this.countNodes());
+		}
+		if (jfrEvent != null) {
+			/* no string is encoded, so its size is unknown */
+			RichTextEvents.commitSerialize(jfrEvent, this, "toJson", -1L);
 		}
 		return json;
 	}
 
+	private int countNodes() {
+		return RichTextWalker.forThread().count(this);
+	}
+
+	/**
+	 * Adds a dependent to this text, which will be invalidated when this text
+	 * changes.
+	 * 
+	 * @param dependent
+	 *            the dependent to add.
+	 * @throws NullPointerException
+	 *             if {@code dependent} is {@code null}.
+	 * @see Dependents#add(Dependent)
+	 */
+	public final void addDependent(@NotNull Dependent dependent) {
+		Objects.requireNonNull(dependent, "dependent");
+		if (frozen) {
+			return; /* frozen text never changes */
+		} else if (dependents != null) {
+			dependents.add(dependent);
+			return;
+		}
+
+		Dependent first = this.dependent != null ? this.dependent.get() : null;
+		if (first == null) {
+			this.dependent = new WeakReference<>(dependent);
+			return;
+		}
+		this.dependents = new Dependents();
+		dependents.add(first);
+		dependents.add(dependent);
+		this.dependent = null;
+	}
+
+	/**
+	 * Removes a dependent from this text.
+	 * 
+	 * @param dependent
+	 *            the dependent to remove.
+	 * @see Dependents#remove(Dependent)
+	 */
+	public final void removeDependent(@Nullable Dependent dependent) {
+		if (dependents != null) {
+			dependents.remove(dependent);
+		} else if (dependent != null && this.dependent != null
+				&& this.dependent.get() == dependent) {
+			this.dependent = null;
+		}
+	}
+
+	@Override
+	public void invalidate() {
+		if (dirty || frozen) {
+			return;
+		}
+		this.dirty = true;
+		this.json = null;
+		this.hash = 0;
+		if (dependent != null) {
+			Dependent first = dependent.get();
+			if (first != null) {
+				first.invalidate();
+			}
+		} else if (dependents != null) {
+			dependents.invalidate();
+		}
+	}
+
+	private static void writeProperty(@NotNull JsonWriter out,
+			@NotNull String name, @Nullable String value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value);
+		}
+	}
+
+	private static void writeProperty(@NotNull JsonWriter out,
+			@NotNull String name, @Nullable Boolean value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value.booleanValue());
+		}
+	}
+
+	private static void writeEvent(@NotNull JsonWriter out,
+			@Nullable RichTextWriter writer, @NotNull TextEvent event)
+			throws IOException {
+		if (writer != null) {
+			writer.enterEvent(event);
+		}
+		out.name(event.getType());
+		event.writeJson(out);
+		if (writer != null) {
+			writer.exitEvent(event);
+		}
+	}
+
+	/**
+	 * Writes text as JSON, as it is walked by a {@link RichTextWalker}. This
+	 * keeps the Java stack from growing with how deeply extras are nested.
+	 * Each thread keeps one of these, along with its walker, so that writing
+	 * text does not allocate either. Text written while other text is being
+	 * written (e.g., the text of a hover event) reuses them both.
+	 */
+	private static final class JsonVisitor
+			implements RichTextWalker.Visitor<IOException> {
+
+		private final RichTextWalker walker = RichTextWalker.forThread();
+		private JsonWriter out;
+		private RichTextWriter writer;
+
+		private void write(@NotNull RichText text, @NotNull JsonWriter out,
+				@Nullable RichTextWriter writer) throws IOException {
+			JsonWriter previousOut = this.out;
+			RichTextWriter previousWriter = this.writer;
+			this.out = out;
+			this.writer = writer;
+			try {
+				walker.walk(text, this);
+			} finally {
+				this.out = previousOut;
+				this.writer = previousWriter;
+			}
+		}
+
+		@Override
+		public boolean enterText(@NotNull RichText text) throws IOException {
+			return text.beginJson(out, writer);
+		}
+
+		@Override
+		public void exitText(@NotNull RichText text) throws IOException {
+			text.endJson(out, writer);
+		}
+
+	}
+
+	private static final ThreadLocal<JsonVisitor> JSON_VISITORS =
+			ThreadLocal.withInitial(JsonVisitor::new);
+
+	/**
+	 * Writes the text as JSON, without first building a JSON object. The
+	 * output is identical to that of {@link #toJson()}.
+	 * 
+	 * @param out
+	 *            the writer to write to.
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 * @see RichTextWriter
+	 */
+	public final void writeJson(@NotNull JsonWriter out) throws IOException {
+		Objects.requireNonNull(out, "out");
+		RichTextWriter writer = out instanceof RichTextWriter
+				? (RichTextWriter) out : null;
+		JSON_VISITORS.get().write(this, out, writer);
+	}
+
+	/*
+	 * Unstyled plain text can be written using the shorthands accepted by the
+	 * game. Subclasses of PlainText are excluded, as they may add parameters
+	 * of their own.
+	 */
+	private boolean isShorthand(@Nullable RichTextWriter writer) {
+		return writer != null && writer.isCompact()
+				&& this.getClass() == PlainText.class
+				&& content instanceof String && style == Style.EMPTY
+				&& !this.hasEvents();
+	}
+
+	/**
+	 * Writes everything which comes before the extras of this text.
+	 * 
+	 * @return {@code true} if the extras of this text should be written
+	 *         next, followed by {@link #endJson(JsonWriter, RichTextWriter)}.
+	 *         {@code false} if this text has had its cached JSON written.
+	 */
+	private boolean beginJson(@NotNull JsonWriter out,
+			@Nullable RichTextWriter writer) throws IOException {
+		if (writer != null) {
+			if (json != null && writer.splicesCached()) {
+				writer.splicedText(this);
+				out.jsonValue(json);
+				return false;
+			}
+			writer.enterText(this);
+		}
+
+		if (this.isShorthand(writer)) {
+			if (extraCount > 0) {
+				out.beginArray();
+			}
+			out.value((String) content);
+			return true;
+		}
+
+		if (dirty) {
+			this.dirty = false;
+		}
+		out.beginObject();
+		out.name(type);
+		RichTextValueEncoders.write(out, content);
+		this.writeText(out);
+		if (extraCount > 0) {
+			out.name("extra").beginArray();
+		}
+		return true;
+	}
+
+	/**
+	 * Writes everything which comes after the extras of this text.
+	 */
+	private void endJson(@NotNull JsonWriter out,
+			@Nullable RichTextWriter writer) throws IOException {
+		if (extraCount > 0) {
+			out.endArray();
+		}
+
+		if (!this.isShorthand(writer)) {
+			writeProperty(out, "color", style.getColor());
+			writeProperty(out, "font", style.getFont());
+			writeProperty(out, "bold", style.getBold());
+			writeProperty(out, "italic", style.getItalic());
+			writeProperty(out, "strikethrough", style.getStrikethrough());
+			writeProperty(out, "underlined", style.getUnderlined());
+			writeProperty(out, "obfuscated", style.getObfuscated());
+			writeProperty(out, "insertion", style.getInsertion());
+
+			if (hoverEvent != null) {
+				writeEvent(out, writer, hoverEvent);
+			}
+			if (clickEvent != null) {
+				writeEvent(out, writer, clickEvent);
+			}
+			if (otherEvents != null) {
+				for (TextEvent event : otherEvents.values()) {
+					writeEvent(out, writer, event);
+				}
+			}
+			out.endObject();
+		}
+
+		if (writer != null) {
+			writer.exitText(this);
+		}
+	}
+
+	/**
+	 * Writes the text as JSON, without first building a JSON object. The
+	 * output is identical to that of {@link #toString()}.
+	 * 
+	 * @param out
+	 *            the destination to write to.
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public final void writeJson(@NotNull Appendable out) throws IOException {
+		JsonWriter writer = new RichTextWriter(out, true);
+		this.writeJson(writer);
+		writer.flush();
+	}
+
+	/**
+	 * Returns a hash code for the text specific parameters of this text.
+	 * <p>
+	 * By default, this hashes the JSON encoded by
+	 * {@link #serializeText(JsonObject)}. Subclasses which have parameters of
+	 * their own should override this method along with
+	 * {@link #equalsText(RichText)}.
+	 * 
+	 * @return a hash code for the text specific parameters.
+	 */
+	protected int hashText() {
+		if (!SERIALIZES_TEXT.get(this.getClass())) {
+			return 0;
+		}
+		JsonObject json = new JsonObject();
+		this.serializeText(json);
+		return json.hashCode();
+	}
+
+	/**
+	 * Returns if the text specific parameters of this text are equal to those
+	 * of another text.
+	 * <p>
+	 * By default, this compares the JSON encoded by
+	 * {@link #serializeText(JsonObject)}. Subclasses which have parameters of
+	 * their own should override this method along with {@link #hashText()}.
+	 * 
+	 * @param text
+	 *            the text to compare against. This is guaranteed to be of the
+	 *            same class as this text.
+	 * @return {@code true} if the parameters are equal, {@code false}
+	 *         otherwise.
+	 */
+	protected boolean equalsText(@NotNull RichText text) {
+		if (!SERIALIZES_TEXT.get(this.getClass())) {
+			return true;
+		}
+		JsonObject json = new JsonObject();
+		JsonObject otherJson = new JsonObject();
+		this.serializeText(json);
+		text.serializeText(otherJson);
+		return json.equals(otherJson);
+	}
+
+	/*
+	 * Computes the hash codes of text and its extras from the bottom up, so
+	 * each is computed after those of its extras. Extras which already have
+	 * their hash code cached are skipped.
+	 */
+	private static final RichTextWalker.Visitor<RuntimeException> HASHER =
+			new RichTextWalker.Visitor<RuntimeException>() {
+
+				@Override
+				public boolean enterText(@NotNull RichText text) {
+					return text.hash == 0;
+				}
+
+				@Override
+				public void exitText(@NotNull RichText text) {
+					text.computeHash();
+				}
+
+			};
+
 	@Override
 	public int hashCode() {
-		return this.toString().hashCode();
+		int hash = this.hash;
+		if (hash != 0) {
+			return hash;
+		}
+		RichTextWalker.forThread().walk(this, HASHER);
+		return this.hash;
+	}
+
+	/*
+	 * The hash codes of the extras of this text must have been computed
+	 * first, or computing them here would recurse.
+	 */
+	private void computeHash() {
+		int hash = type.hashCode();
+		hash = 31 * hash + content.hashCode();
+		hash = 31 * hash + this.hashText();
+		for (int i = 0; i < extraCount; i++) {
+			hash = 31 * hash + extra[i].hashCode();
+		}
+		hash = 31 * hash + style.hashCode();
+		hash = 31 * hash + this.hashEvents();
+
+		if (dirty) {
+			this.dirty = false;
+		}
+		this.hash = hash;
+	}
+
+	/*
+	 * This is the same hash code a map of the events by their type would
+	 * have, so hash codes are unchanged from when events were kept in one.
+	 */
+	private int hashEvents() {
+		int hash = 0;
+		if (hoverEvent != null) {
+			hash += HOVER_EVENT.hashCode() ^ hoverEvent.hashCode();
+		}
+		if (clickEvent != null) {
+			hash += CLICK_EVENT.hashCode() ^ clickEvent.hashCode();
+		}
+		if (otherEvents != null) {
+			hash += otherEvents.hashCode();
+		}
+		return hash;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		String objStr = Objects.toString(obj);
-		return Objects.equals(objStr, this.toString());
+		if (obj == this) {
+			return true;
+		} else if (obj == null || obj.getClass() != this.getClass()) {
+			return false;
+		}
+		RichText text = (RichText) obj;
+		return this.equalsIgnoreExtra(text) && equalsExtra(this, text);
+	}
+
+	/*
+	 * Compares everything but the extras of two texts, other than how many
+	 * there are. Both texts must be of the same class.
+	 */
+	private boolean equalsIgnoreExtra(@NotNull RichText text) {
+		if (this.hashCode() != text.hashCode()) {
+			return false;
+		} else if (!type.equals(text.type)
+				|| !content.equals(text.content)
+				|| extraCount != text.extraCount) {
+			return false;
+		}
+
+		/* styles are interned, so they can be compared by identity */
+		return style == text.style
+				&& Objects.equals(hoverEvent, text.hoverEvent)
+				&& Objects.equals(clickEvent, text.clickEvent)
+				&& Objects.equals(otherEvents, text.otherEvents)
+				&& this.equalsText(text);
+	}
+
+	/*
+	 * Compares the extras of two texts depth-first. This keeps its own stack
+	 * of the pairs of text being compared, along with the index of the next
+	 * extra to compare, so the Java stack does not grow with how deeply the
+	 * extras are nested.
+	 */
+	private static boolean equalsExtra(@NotNull RichText left,
+			@NotNull RichText right) {
+		if (left.extraCount <= 0) {
+			return true;
+		}
+
+		RichText[] lefts = new RichText[16];
+		RichText[] rights = new RichText[16];
+		int[] indices = new int[16];
+		lefts[0] = left;
+		rights[0] = right;
+		int size = 1;
+
+		while (size > 0) {
+			int top = size - 1;
+			int index = indices[top];
+			if (index >= lefts[top].extraCount) {
+				size -= 1;
+				continue;
+			}
+
+			indices[top] = index + 1;
+			RichText child = lefts[top].extra[index];
+			RichText other = rights[top].extra[index];
+			if (child == other) {
+				continue; /* nothing to compare */
+			} else if (child.getClass() != other.getClass()
+					|| !child.equalsIgnoreExtra(other)) {
+				return false;
+			} else if (child.extraCount <= 0) {
+				continue;
+			}
+
+			if (size >= lefts.length) {
+				int capacity = size * 2;
+				lefts = Arrays.copyOf(lefts, capacity);
+				rights = Arrays.copyOf(rights, capacity);
+				indices = Arrays.copyOf(indices, capacity);
+			}
+			lefts[size] = child;
+			rights[size] = other;
+			indices[size] = 0;
+			size += 1;
+		}
+		return true;
 	}
 
 	@Override
 	public String toString() {
-		return GSON.toJson(this);
+		RichTextMetrics metrics = RichText.metrics;
+		if (json != null) {
+			if (metrics != RichTextMetrics.NONE) {
+				metrics.recordCacheHit(this);
+			}
+			return json;
+		}
+
+		Object jfrEvent = RichTextEvents.beginSerialize();
+		String encoded;
+		if (metrics != RichTextMetrics.NONE) {
+			encoded = this.toStringMeasured(metrics);
+		} else {
+			StringWriter out = new StringWriter();
+			try {
+				this.writeJson(out);
+			} catch (IOException e) {
+				throw new JsonIOException(e);
+			}
+			encoded = out.toString();
+			this.json = encoded;
+		}
+
+		if (jfrEvent != null) {
+			RichTextEvents.commitSerialize(jfrEvent, this, "toString",
+					RichTextAnalyzer.utf8Length(encoded));
+		}
+		return encoded;
+	}
+
+	/*
+	 * Used by RichTextBatch, to skip text which has nothing to encode.
+	 */
+	final boolean hasCachedJson() {
+		return json != null;
+	}
+
+	@NotNull
+	private String toStringMeasured(@NotNull RichTextMetrics metrics) {
+		long start = System.nanoTime();
+		StringWriter out = new StringWriter();
+		MetricsWriter writer = new MetricsWriter(out, metrics);
+		try {
+			this.writeJson(writer);
+			writer.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		this.json = out.toString();
+		long nanos = System.nanoTime() - start;
+
+		metrics.recordToString(this, nanos,
+				RichTextAnalyzer.utf8Length(json), writer.nodes);
+		return json;
 	}
 
 }
@@ -0,0 +1,457 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.JsonIOException;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+
+/**
+ * Measures the JSON of rich text without producing it, and cuts text down to
+ * fit within a size limit.
+ * <p>
+ * The game rejects chat messages, books, and items whose text is too large,
+ * and text which is nested too deeply can crash clients. Rather than encoding
+ * text and measuring the result, {@link #analyze(RichText)} computes the
+ * size of the JSON (along with other statistics) in a single pass over the
+ * text, without keeping any of it.
+ * <p>
+ * When text is too large, {@link #truncate(RichText, int)} and
+ * {@link #split(RichText, int)} can be used to make it fit. Both break the
+ * text apart into pieces which have the style and events they would have
+ * inherited set explicitly. As such, the pieces look the same as they did
+ * before. As a side effect, the text returned is never nested more than two
+ * deep (not counting the contents of translated text and hover events).
+ */
+public final class RichTextAnalyzer {
+
+	/**
+	 * Counts the bytes needed to encode characters as UTF-8, without keeping
+	 * the characters. Unpaired surrogates are counted as one byte, as they
+	 * are replaced with {@code '?'} when encoded.
+	 */
+	private static class Utf8Counter extends Writer {
+
+		private long count;
+		private boolean highSurrogate;
+
+		@Override
+		public void write(int c) {
+			char ch = (char) c;
+			if (highSurrogate) {
+				this.highSurrogate = false;
+				if (Character.isLowSurrogate(ch)) {
+					this.count += 4;
+					return;
+				}
+				this.count += 1;
+			}
+
+			if (ch < 0x80) {
+				this.count += 1;
+			} else if (ch < 0x800) {
+				this.count += 2;
+			} else if (Character.isHighSurrogate(ch)) {
+				this.highSurrogate = true;
+			} else if (Character.isLowSurrogate(ch)) {
+				this.count += 1;
+			} else {
+				this.count += 3;
+			}
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				this.write(cbuf[i]);
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				this.write(str.charAt(i));
+			}
+		}
+
+		private long getCount() {
+			return highSurrogate ? count + 1 : count;
+		}
+
+		@Override
+		public void flush() {
+			/* nothing to flush */
+		}
+
+		@Override
+		public void close() {
+			/* nothing to close */
+		}
+
+	}
+
+	/**
+	 * Keeps track of where it is in the text being written, so statistics
+	 * can be gathered while the JSON is counted.
+	 */
+	private static class AnalyzingWriter extends RichTextWriter {
+
+		private final Utf8Counter counter;
+		private final Deque<RichText> texts;
+		private final Deque<Long> eventStarts;
+		private final List<RichTextStats.EventSize> eventSizes;
+		private int nodeCount;
+		private int maxDepth;
+
+		private AnalyzingWriter(@NotNull Utf8Counter counter) {
+			super(counter, false);
+			this.counter = counter;
+			this.texts = new ArrayDeque<>();
+			this.eventStarts = new ArrayDeque<>();
+			this.eventSizes = new ArrayList<>();
+		}
+
+		@Override
+		void enterText(@NotNull RichText text) {
+			texts.push(text);
+			this.nodeCount += 1;
+			this.maxDepth = Math.max(maxDepth, texts.size());
+		}
+
+		@Override
+		void exitText(@NotNull RichText text) {
+			texts.pop();
+		}
+
+		@Override
+		void enterEvent(@NotNull TextEvent event) {
+			eventStarts.push(counter.getCount());
+		}
+
+		@Override
+		void exitEvent(@NotNull TextEvent event) {
+			long size = counter.getCount() - eventStarts.pop();
+			eventSizes.add(new RichTextStats.EventSize(texts.peek(), event,
+					size));
+		}
+
+		@NotNull
+		private RichTextStats getStats() {
+			return new RichTextStats(counter.getCount(), nodeCount, maxDepth,
+					eventSizes);
+		}
+
+	}
+
+	/*
+	 * The bytes added to text by giving it its first extra, not counting the
+	 * extra itself. This is the name of the member, and the array it holds.
+	 */
+	private static final long EXTRA_OVERHEAD = measure(
+			new PlainText("").addExtra(new PlainText(""))) - 2 * measure(
+					new PlainText(""));
+
+	private RichTextAnalyzer() {
+		/* static class */
+	}
+
+	/*
+	 * Returns the size of a string when encoded as UTF-8, without encoding
+	 * it. Unpaired surrogates are counted the same way as when encoding.
+	 */
+	static long utf8Length(@NotNull String str) {
+		Utf8Counter counter = new Utf8Counter();
+		counter.write(str, 0, str.length());
+		return counter.getCount();
+	}
+
+	/**
+	 * Measures the size of the UTF-8 encoded JSON of the given text, without
+	 * producing it.
+	 *
+	 * @param text
+	 *            the text to measure.
+	 * @return the size of the UTF-8 encoded JSON of {@code text}.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	public static long measure(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		Utf8Counter counter = new Utf8Counter();
+		try {
+			text.writeJson(new RichTextWriter(counter, true));
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+		return counter.getCount();
+	}
+
+	/**
+	 * Computes statistics about the JSON of the given text, without producing
+	 * it. This is done in a single pass over the text.
+	 *
+	 * @param text
+	 *            the text to analyze.
+	 * @return statistics about the JSON of {@code text}.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	@NotNull
+	public static RichTextStats analyze(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		AnalyzingWriter out = new AnalyzingWriter(new Utf8Counter());
+		try {
+			text.writeJson(out);
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+		return out.getStats();
+	}
+
+	/**
+	 * Cuts text down so its UTF-8 encoded JSON is no larger than the given
+	 * number of bytes. Any text which does not fit is dropped from the end.
+	 * The last piece of plain text which fits is cut short, rather than being
+	 * dropped entirely.
+	 *
+	 * @param text
+	 *            the text to truncate.
+	 * @param maxBytes
+	 *            the maximum size of the JSON in bytes.
+	 * @return the truncated text. If {@code text} already fits, it is
+	 *         returned as is. Otherwise, the returned text is a copy.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code maxBytes} is too small for even empty text.
+	 */
+	@NotNull
+	public static RichText truncate(@NotNull RichText text, int maxBytes) {
+		if (measure(text) <= maxBytes) {
+			return text;
+		}
+
+		RichText truncated = new PlainText("");
+		long size = measure(truncated);
+		if (size > maxBytes) {
+			throw new IllegalArgumentException("maxBytes too small");
+		}
+
+		for (RichText piece : flatten(text)) {
+			long overhead = !hasExtra(truncated) ? EXTRA_OVERHEAD
+					: 1; /* separating comma */
+			long pieceSize = measure(piece);
+			if (size + overhead + pieceSize <= maxBytes) {
+				truncated.addExtra(piece);
+				size += overhead + pieceSize;
+				continue;
+			}
+
+			RichText head = cut(piece, maxBytes - size - overhead);
+			if (head != null) {
+				truncated.addExtra(head);
+			}
+			break;
+		}
+		return truncated;
+	}
+
+	/**
+	 * Splits text into parts whose UTF-8 encoded JSON is no larger than the
+	 * given number of bytes. Plain text which does not fit into a part is
+	 * split between it and the next part.
+	 *
+	 * @param text
+	 *            the text to split.
+	 * @param maxBytes
+	 *            the maximum size of the JSON of each part in bytes.
+	 * @return the parts of the text, in order. If {@code text} already fits,
+	 *         it is the only part. Otherwise, the parts are copies.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if a piece of text which cannot be split (e.g., translated
+	 *             text) does not fit into a part on its own.
+	 */
+	@NotNull
+	public static List<RichText> split(@NotNull RichText text,
+			int maxBytes) {
+		if (measure(text) <= maxBytes) {
+			return Collections.singletonList(text);
+		}
+
+		long emptySize = measure(new PlainText(""));
+		if (emptySize > maxBytes) {
+			throw new IllegalArgumentException("maxBytes too small");
+		}
+
+		List<RichText> parts = new ArrayList<>();
+		Deque<RichText> pieces = new ArrayDeque<>(flatten(text));
+		RichText part = new PlainText("");
+		long size = emptySize;
+		while (!pieces.isEmpty()) {
+			RichText piece = pieces.pop();
+			boolean first = !hasExtra(part);
+			long overhead = first ? EXTRA_OVERHEAD : 1;
+			long pieceSize = measure(piece);
+			if (size + overhead + pieceSize <= maxBytes) {
+				part.addExtra(piece);
+				size += overhead + pieceSize;
+				continue;
+			}
+
+			/*
+			 * Plain text is split between this part and the next, so each
+			 * part is as full as it can be. Anything else is moved to the
+			 * next part, unless this part is empty. In that case, it cannot
+			 * fit into any part on its own.
+			 */
+			RichText head = cut(piece, maxBytes - size - overhead);
+			if (head == null && first) {
+				throw new IllegalArgumentException(
+						"text does not fit in " + maxBytes + " bytes");
+			} else if (head != null) {
+				part.addExtra(head);
+				String content = (String) piece.getContent();
+				String rest = content.substring(
+						((String) head.getContent()).length());
+				pieces.push(piece.setContent(rest));
+			} else {
+				pieces.push(piece);
+			}
+
+			parts.add(part);
+			part = new PlainText("");
+			size = emptySize;
+		}
+		if (hasExtra(part)) {
+			parts.add(part);
+		}
+		return parts;
+	}
+
+	private static boolean hasExtra(@NotNull RichText text) {
+		return !text.getExtra().isEmpty();
+	}
+
+	private static boolean isPlain(@NotNull RichText text) {
+		return text.getClass() == PlainText.class
+				&& text.getContent() instanceof String;
+	}
+
+	/**
+	 * Breaks text apart into pieces without extras, which have the style and
+	 * events they would have inherited set explicitly. Empty plain text is
+	 * left out, as it displays nothing. Extras are walked without recursion,
+	 * so the style and events each text passes on to its extras are kept on
+	 * stacks of their own.
+	 */
+	private static class Flattener
+			implements RichTextWalker.Visitor<RuntimeException> {
+
+		private final List<RichText> pieces = new ArrayList<>();
+		private final List<Style> styles = new ArrayList<>();
+		private final List<Map<String, TextEvent>> events = new ArrayList<>();
+
+		@Override
+		public boolean enterText(@NotNull RichText text) {
+			int top = styles.size() - 1;
+			Style inherited = top >= 0 ? styles.get(top) : Style.EMPTY;
+			Map<String, TextEvent> inheritedEvents =
+					top >= 0 ? events.get(top) : Collections.emptyMap();
+
+			Style style = text.getStyle().inheritFrom(inherited);
+			Map<String, TextEvent> textEvents = new HashMap<>(inheritedEvents);
+			for (TextEvent event : text.getEvents()) {
+				textEvents.put(event.getType(), event);
+			}
+
+			if (!isPlain(text) || !((String) text.getContent()).isEmpty()) {
+				RichText piece = text.copyWithoutExtra();
+				piece.setStyle(style);
+				for (TextEvent event : textEvents.values()) {
+					if (!piece.hasEvent(event.getType())) {
+						piece.addEvent(event.copy());
+					}
+				}
+				pieces.add(piece);
+			}
+
+			if (!hasExtra(text)) {
+				return false; /* nothing to pass on */
+			}
+			styles.add(style);
+			events.add(textEvents);
+			return true;
+		}
+
+		@Override
+		public void exitText(@NotNull RichText text) {
+			int top = styles.size() - 1;
+			styles.remove(top);
+			events.remove(top);
+		}
+
+	}
+
+	@NotNull
+	private static List<RichText> flatten(@NotNull RichText text) {
+		Flattener flattener = new Flattener();
+		RichTextWalker.forThread().walk(text, flattener);
+		return flattener.pieces;
+	}
+
+	/*
+	 * Returns the longest start of a piece of plain text which fits into the
+	 * given number of bytes, or null if the piece cannot be cut or nothing of
+	 * it fits. Characters made up of surrogate pairs are never cut in half.
+	 */
+	@Nullable
+	private static RichText cut(@NotNull RichText piece, long maxBytes) {
+		if (!isPlain(piece)) {
+			return null;
+		}
+
+		String content = (String) piece.getContent();
+		RichText head = piece.copyWithoutExtra();
+		int low = 0; /* always fits */
+		int high = content.length(); /* never fits */
+		while (high - low > 1) {
+			int mid = (low + high) >>> 1;
+			if (Character.isLowSurrogate(content.charAt(mid))
+					&& Character.isHighSurrogate(content.charAt(mid - 1))) {
+				mid -= 1;
+				if (mid <= low) {
+					mid += 2;
+					if (mid >= high) {
+						break;
+					}
+				}
+			}
+			head.setContent(content.substring(0, mid));
+			if (measure(head) <= maxBytes) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+
+		if (low <= 0) {
+			return null;
+		}
+		return head.setContent(content.substring(0, low));
+	}
+
+}
@@ -0,0 +1,341 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Encodes many pieces of rich text (or a single, very large one) in parallel.
+ * This is useful for bulk jobs, such as regenerating thousands of book pages
+ * at once. For example:
+ *
+ * <pre>
+ * List&lt;String&gt; pages = RichTextBatch.toStrings(texts);
+ * </pre>
+ * <p>
+ * Work is done on the common {@link ForkJoinPool} by default, or on a given
+ * executor. The output is always identical to (and in the same order as) that
+ * of encoding the text one by one. When there is too little to encode for
+ * parallelism to pay off, the text is encoded on the calling thread instead.
+ * <p>
+ * Text is mutable, and must not be changed (or used by any other thread)
+ * while it is being encoded. This includes text which is shared, such as an
+ * extra of more than one text in the batch. Encoded JSON is cached by the
+ * text it belongs to, just as it is by {@link RichText#toString()}. To
+ * encode text which may be changed meanwhile, encode a
+ * {@link RichText#freeze() frozen} snapshot of it instead.
+ */
+public final class RichTextBatch {
+
+	/*
+	 * The fewest values, or nodes of a single text, that are encoded in
+	 * parallel. Below this, handing off work costs more than it saves.
+	 */
+	static final int MIN_PARALLEL_VALUES = 64;
+	static final int MIN_PARALLEL_NODES = 2048;
+
+	/**
+	 * Runs an action for a range of indices, dividing the range in half until
+	 * it is small enough to run directly.
+	 */
+	private static class RangeAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IntConsumer action;
+		private final int from;
+		private final int to;
+		private final int grain;
+
+		private RangeAction(@NotNull IntConsumer action, int from, int to,
+				int grain) {
+			this.action = action;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				for (int i = from; i < to; i++) {
+					action.accept(i);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new RangeAction(action, from, middle, grain),
+					new RangeAction(action, middle, to, grain));
+		}
+
+	}
+
+	private RichTextBatch() {
+		/* static class */
+	}
+
+	private static int parallelism(@NotNull Executor executor) {
+		if (executor instanceof ForkJoinPool) {
+			return ((ForkJoinPool) executor).getParallelism();
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Runs an action for each index up to {@code size} on an executor, and
+	 * waits for them all to finish. Each index is given to exactly one
+	 * thread, and everything done by the action happens before this method
+	 * returns.
+	 */
+	private static void parallelFor(int size, @NotNull IntConsumer action,
+			@NotNull Executor executor) {
+		int parallelism = parallelism(executor);
+		int grain = Math.max(1, size / (parallelism * 4));
+		if (executor instanceof ForkJoinPool) {
+			((ForkJoinPool) executor)
+					.invoke(new RangeAction(action, 0, size, grain));
+			return;
+		}
+
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		for (int from = 0; from < size; from += grain) {
+			int start = from;
+			int end = Math.min(from + grain, size);
+			chunks.add(CompletableFuture.runAsync(() -> {
+				for (int i = start; i < end; i++) {
+					action.accept(i);
+				}
+			}, executor));
+		}
+
+		try {
+			CompletableFuture<?>[] futures =
+					chunks.toArray(new CompletableFuture<?>[0]);
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Encodes each value to a JSON string, in parallel on the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param values
+	 *            the values to encode. Values are converted to instances of
+	 *            {@code RichText} via {@link RichText#persuade(Object)}.
+	 * @return the JSON of each value, in the same order as {@code values}.
+	 *         {@code null} values are encoded as {@code null}.
+	 * @throws NullPointerException
+	 *             if {@code values} is {@code null}.
+	 * @see RichText#toString()
+	 */
+	@NotNull
+	public static List<String> toStrings(@NotNull Collection<?> values) {
+		return toStrings(values, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Encodes each value to a JSON string, in parallel on an executor.
+	 *
+	 * @param values
+	 *            the values to encode. Values are converted to instances of
+	 *            {@code RichText} via {@link RichText#persuade(Object)}.
+	 * @param executor
+	 *            the executor to encode on.
+	 * @return the JSON of each value, in the same order as {@code values}.
+	 *         {@code null} values are encoded as {@code null}.
+	 * @throws NullPointerException
+	 *             if {@code values} or {@code executor} are {@code null}.
+	 * @see RichText#toString()
+	 */
+	@NotNull
+	public static List<String> toStrings(@NotNull Collection<?> values,
+			@NotNull Executor executor) {
+		Objects.requireNonNull(values, "values");
+		Objects.requireNonNull(executor, "executor");
+		Object[] array = values.toArray();
+		String[] encoded = new String[array.length];
+		IntConsumer encode = i -> {
+			RichText text = RichText.persuade(array[i]);
+			encoded[i] = text != null ? text.toString() : null;
+		};
+
+		if (array.length < MIN_PARALLEL_VALUES) {
+			for (int i = 0; i < array.length; i++) {
+				encode.accept(i);
+			}
+		} else {
+			parallelFor(array.length, encode, executor);
+		}
+		return Collections.unmodifiableList(Arrays.asList(encoded));
+	}
+
+	/**
+	 * Encodes values to a JSON array string, in parallel on the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param values
+	 *            the values to encode. Values are converted to instances of
+	 *            {@code RichText} via {@link RichText#persuade(Object)}.
+	 * @return a JSON array string containing all not {@code null} values of
+	 *         {@code values}, {@code null} if {@code values} is {@code null}
+	 *         or the resulting JSON array would be empty.
+	 * @see RichText#toString(Iterable)
+	 */
+	@Nullable
+	public static String toString(@Nullable Collection<?> values) {
+		return toString(values, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Encodes values to a JSON array string, in parallel on an executor.
+	 * <p>
+	 * Each value is first encoded on its own. The array is then written on
+	 * the calling thread, with the JSON of each value written as is.
+	 *
+	 * @param values
+	 *            the values to encode. Values are converted to instances of
+	 *            {@code RichText} via {@link RichText#persuade(Object)}.
+	 * @param executor
+	 *            the executor to encode on.
+	 * @return a JSON array string containing all not {@code null} values of
+	 *         {@code values}, {@code null} if {@code values} is {@code null}
+	 *         or the resulting JSON array would be empty.
+	 * @throws NullPointerException
+	 *             if {@code executor} is {@code null}.
+	 * @see RichText#toString(Iterable)
+	 */
+	@Nullable
+	public static String toString(@Nullable Collection<?> values,
+			@NotNull Executor executor) {
+		Objects.requireNonNull(executor, "executor");
+		if (values == null) {
+			return null;
+		}
+
+		/*
+		 * Values which are not already text must only be persuaded once, or
+		 * the JSON cached by encoding them would be lost.
+		 */
+		List<RichText> texts = new ArrayList<>(values.size());
+		for (Object value : values) {
+			if (value != null) {
+				texts.add(RichText.persuade(value));
+			}
+		}
+		if (texts.size() >= MIN_PARALLEL_VALUES) {
+			parallelFor(texts.size(), i -> texts.get(i).toString(), executor);
+		}
+		return RichText.toString(texts);
+	}
+
+	/**
+	 * Encodes a single text to a JSON string, in parallel on the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param text
+	 *            the text to encode.
+	 * @return the encoded JSON.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @see RichText#toString()
+	 */
+	@NotNull
+	public static String toString(@NotNull RichText text) {
+		return toString(text, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Encodes a single text to a JSON string, in parallel on an executor.
+	 * <p>
+	 * The tree formed by the text and its extras is divided into subtrees,
+	 * which are encoded on their own. The text is then written on the calling
+	 * thread, with the JSON of each subtree written as is. Text with fewer
+	 * than a few thousand pieces is encoded on the calling thread instead.
+	 *
+	 * @param text
+	 *            the text to encode.
+	 * @param executor
+	 *            the executor to encode on.
+	 * @return the encoded JSON.
+	 * @throws NullPointerException
+	 *             if {@code text} or {@code executor} are {@code null}.
+	 * @see RichText#toString()
+	 */
+	@NotNull
+	public static String toString(@NotNull RichText text,
+			@NotNull Executor executor) {
+		Objects.requireNonNull(text, "text");
+		Objects.requireNonNull(executor, "executor");
+		if (text.isFrozen() || text.hasCachedJson()
+				|| text.stream().limit(MIN_PARALLEL_NODES).count()
+						< MIN_PARALLEL_NODES) {
+			return text.toString();
+		}
+
+		List<RichText> subtrees = divide(text, parallelism(executor) * 4);
+		if (subtrees.size() > 1) {
+			parallelFor(subtrees.size(), i -> subtrees.get(i).toString(),
+					executor);
+		}
+		return text.toString();
+	}
+
+	/*
+	 * Divides text into at least the given number of subtrees (if it can),
+	 * going breadth first. The text itself is never included, as it is left
+	 * to the calling thread. Text which is the extra of more than one text is
+	 * only included once, so no two threads encode it as a subtree at once.
+	 * It may still be written by more than one thread if it is nested deeper
+	 * within other subtrees. Only the JSON of the subtrees themselves is
+	 * cached, so writing it this way only clears its dirty flag, which each
+	 * thread does alike.
+	 */
+	@NotNull
+	private static List<RichText> divide(@NotNull RichText text, int count) {
+		List<RichText> subtrees = new ArrayList<>();
+		Set<RichText> seen =
+				Collections.newSetFromMap(new IdentityHashMap<>());
+		ArrayDeque<RichText> parents = new ArrayDeque<>();
+		parents.add(text);
+		while (!parents.isEmpty()
+				&& parents.size() + subtrees.size() < count) {
+			RichText parent = parents.poll();
+			for (int i = 0; i < parent.extraCount(); i++) {
+				RichText child = parent.extraAt(i);
+				if (child.hasCachedJson() || !seen.add(child)) {
+					continue; /* nothing to encode, or already divided */
+				} else if (child.extraCount() > 0) {
+					parents.add(child);
+				} else {
+					subtrees.add(child);
+				}
+			}
+		}
+		subtrees.addAll(parents);
+		return subtrees;
+	}
+
+}
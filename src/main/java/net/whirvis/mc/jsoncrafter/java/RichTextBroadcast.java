@@ -0,0 +1,192 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+
+/**
+ * Sends rich text to many players at once, encoding it only once rather than
+ * once for each player. The same components are then given to each player.
+ * Components are mutable, so those made by a broadcast are never handed out.
+ * This keeps anything from changing them while they are being sent.
+ * <p>
+ * When the text sent differs by locale (e.g., it contains text which has
+ * already been translated by the server), a function giving the text for each
+ * locale can be given instead. It is called once for each distinct locale of
+ * the players being sent to, and each distinct text it returns is encoded only
+ * once. For example:
+ *
+ * <pre>
+ * RichTextBroadcast.broadcast(locale -&gt; messages.get(locale),
+ * 		Bukkit.getOnlinePlayers());
+ * </pre>
+ */
+public final class RichTextBroadcast {
+
+	private static final BaseComponent[] NO_COMPONENTS = new BaseComponent[0];
+
+	private RichTextBroadcast() {
+		/* static class */
+	}
+
+	/**
+	 * Converts text into the components used by the Spigot API.
+	 * <p>
+	 * New components are returned on each call, so they can be changed by
+	 * the caller. They must not be changed once they have been sent to a
+	 * player (e.g., through an API which sends them later), as they may not
+	 * have been serialized yet.
+	 *
+	 * @param text
+	 *            the text to convert.
+	 * @return the converted components.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	@NotNull
+	public static BaseComponent[] toComponents(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		return ComponentSerializer.parse(text.toString());
+	}
+
+	/**
+	 * Sends text to the given players.
+	 *
+	 * @param type
+	 *            where the text is shown.
+	 * @param text
+	 *            the text to send.
+	 * @param recipients
+	 *            the players to send to.
+	 * @throws NullPointerException
+	 *             if {@code type}, {@code text}, or {@code recipients} are
+	 *             {@code null}.
+	 */
+	public static void broadcast(@NotNull ChatMessageType type,
+			@NotNull RichText text,
+			@NotNull Iterable<? extends Player> recipients) {
+		Objects.requireNonNull(type, "type");
+		Objects.requireNonNull(recipients, "recipients");
+		BaseComponent[] components = toComponents(text);
+		for (Player player : recipients) {
+			player.spigot().sendMessage(type, components);
+		}
+	}
+
+	/**
+	 * Sends text to the given players as a system message.
+	 *
+	 * @param text
+	 *            the text to send.
+	 * @param recipients
+	 *            the players to send to.
+	 * @throws NullPointerException
+	 *             if {@code text} or {@code recipients} are {@code null}.
+	 */
+	public static void broadcast(@NotNull RichText text,
+			@NotNull Iterable<? extends Player> recipients) {
+		broadcast(ChatMessageType.SYSTEM, text, recipients);
+	}
+
+	/**
+	 * Sends text to all online players as a system message.
+	 *
+	 * @param text
+	 *            the text to send.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	public static void broadcast(@NotNull RichText text) {
+		broadcast(text, Bukkit.getOnlinePlayers());
+	}
+
+	/**
+	 * Sends text to the given players, based on their locale.
+	 *
+	 * @param type
+	 *            where the text is shown.
+	 * @param variants
+	 *            gives the text to send for a locale. It is called once for
+	 *            each distinct locale of {@code recipients}. It may return
+	 *            {@code null} to send nothing to players with that locale.
+	 * @param recipients
+	 *            the players to send to.
+	 * @throws NullPointerException
+	 *             if {@code type}, {@code variants}, or {@code recipients}
+	 *             are {@code null}.
+	 */
+	public static void broadcast(@NotNull ChatMessageType type,
+			@NotNull Function<String, ? extends RichText> variants,
+			@NotNull Iterable<? extends Player> recipients) {
+		Objects.requireNonNull(type, "type");
+		Objects.requireNonNull(variants, "variants");
+		Objects.requireNonNull(recipients, "recipients");
+
+		/*
+		 * Many locales will usually map to the same text (e.g., any locale
+		 * without a translation of its own). As such, the components are
+		 * cached by text as well as by locale.
+		 */
+		Map<String, BaseComponent[]> byLocale = new HashMap<>();
+		Map<RichText, BaseComponent[]> byText = new IdentityHashMap<>();
+		for (Player player : recipients) {
+			String locale = player.getLocale();
+			BaseComponent[] components = byLocale.get(locale);
+			if (components == null) {
+				RichText text = variants.apply(locale);
+				components = getComponents(byText, text);
+				byLocale.put(locale, components);
+			}
+			if (components.length > 0) {
+				player.spigot().sendMessage(type, components);
+			}
+		}
+	}
+
+	/**
+	 * Sends text to the given players as a system message, based on their
+	 * locale.
+	 *
+	 * @param variants
+	 *            gives the text to send for a locale. It is called once for
+	 *            each distinct locale of {@code recipients}. It may return
+	 *            {@code null} to send nothing to players with that locale.
+	 * @param recipients
+	 *            the players to send to.
+	 * @throws NullPointerException
+	 *             if {@code variants} or {@code recipients} are {@code null}.
+	 */
+	public static void broadcast(
+			@NotNull Function<String, ? extends RichText> variants,
+			@NotNull Iterable<? extends Player> recipients) {
+		broadcast(ChatMessageType.SYSTEM, variants, recipients);
+	}
+
+	@NotNull
+	private static BaseComponent[] getComponents(
+			@NotNull Map<RichText, BaseComponent[]> cache,
+			@Nullable RichText text) {
+		if (text == null) {
+			return NO_COMPONENTS;
+		}
+		BaseComponent[] components = cache.get(text);
+		if (components == null) {
+			components = toComponents(text);
+			cache.put(text, components);
+		}
+		return components;
+	}
+
+}
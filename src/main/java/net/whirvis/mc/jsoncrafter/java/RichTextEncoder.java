@@ -0,0 +1,211 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes the JSON of rich text as UTF-8 directly into a {@link ByteBuffer},
+ * without first converting it to a {@code byte[]}.
+ * <p>
+ * Encoding is resumable. When the buffer given to {@link #encode(ByteBuffer)}
+ * fills up, as many bytes as fit are written and the encoder remembers where
+ * it left off. The next call continues from there. The UTF-8 sequence of a
+ * single character is never split between two buffers. For example:
+ *
+ * <pre>
+ * RichTextEncoder encoder = new RichTextEncoder(text);
+ * ByteBuffer buf = ByteBuffer.allocateDirect(encoder.encodedLength());
+ * encoder.encode(buf);
+ * </pre>
+ * <p>
+ * The encoder takes a snapshot of the JSON when it is constructed. Changes
+ * made to the text afterwards are not reflected in the encoded bytes. If the
+ * text was returned by {@link RichText#freeze()}, its precomputed UTF-8 bytes
+ * are copied as is.
+ *
+ * @see RichText#freeze()
+ */
+public class RichTextEncoder {
+
+	/*
+	 * Same as String.getBytes(UTF_8), unpaired surrogates are encoded as a
+	 * question mark. This keeps our output identical to RichText.toUtf8().
+	 */
+	private static final byte MALFORMED = '?';
+
+	private static int utf8Length(@NotNull String str) {
+		int length = str.length();
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				continue; /* one byte */
+			} else if (c < 0x800) {
+				length += 1;
+			} else if (Character.isHighSurrogate(c)
+					&& i + 1 < str.length()
+					&& Character.isLowSurrogate(str.charAt(i + 1))) {
+				length += 2; /* two chars, four bytes */
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				continue; /* malformed, one byte */
+			} else {
+				length += 2;
+			}
+		}
+		return length;
+	}
+
+	private final String json;
+	private final byte[] utf8;
+	private int length = -1;
+	private int position;
+
+	/**
+	 * Constructs a new {@code RichTextEncoder}.
+	 *
+	 * @param text
+	 *            the text to encode.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	public RichTextEncoder(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		this.utf8 = text.utf8;
+		this.json = utf8 == null ? text.toString() : null;
+	}
+
+	/**
+	 * Returns the total number of bytes in the UTF-8 encoded JSON. This can be
+	 * used to size a buffer so the text fits in exactly. For text which is not
+	 * frozen, this is computed on the first call and then remembered.
+	 *
+	 * @return the total number of encoded bytes.
+	 */
+	public int encodedLength() {
+		if (length < 0) {
+			this.length = utf8 != null ? utf8.length : utf8Length(json);
+		}
+		return this.length;
+	}
+
+	/**
+	 * Returns if there are bytes left to encode.
+	 *
+	 * @return {@code true} if there are bytes left to encode, {@code false}
+	 *         if encoding is complete.
+	 */
+	public boolean hasRemaining() {
+		if (utf8 != null) {
+			return position < utf8.length;
+		}
+		return position < json.length();
+	}
+
+	/**
+	 * Resets this encoder, so the next call to {@link #encode(ByteBuffer)}
+	 * starts over from the beginning of the JSON.
+	 */
+	public void reset() {
+		this.position = 0;
+	}
+
+	/**
+	 * Encodes as much of the remaining JSON as fits into the given buffer.
+	 * Bytes are written starting at the position of {@code dst}, which is
+	 * advanced by the number of bytes written.
+	 *
+	 * @param dst
+	 *            the buffer to write to.
+	 * @return the number of bytes written, {@code 0} if there was no room or
+	 *         encoding is complete.
+	 * @throws NullPointerException
+	 *             if {@code dst} is {@code null}.
+	 * @throws java.nio.ReadOnlyBufferException
+	 *             if {@code dst} is read-only.
+	 * @see #hasRemaining()
+	 */
+	public int encode(@NotNull ByteBuffer dst) {
+		Objects.requireNonNull(dst, "dst");
+		if (utf8 != null) {
+			int count = Math.min(dst.remaining(), utf8.length - position);
+			dst.put(utf8, position, count);
+			this.position += count;
+			return count;
+		}
+
+		int start = dst.position();
+		int limit = dst.limit();
+		int pos = start;
+		int i = this.position;
+
+		/*
+		 * When the buffer is backed by an array, the bytes are written to it
+		 * directly. This avoids the bounds checks of put(byte) for each byte,
+		 * which adds up with large texts.
+		 */
+		byte[] array = dst.hasArray() ? dst.array() : null;
+		int offset = array != null ? dst.arrayOffset() : 0;
+
+		while (i < json.length()) {
+			char c = json.charAt(i);
+			if (c < 0x80) {
+				if (pos + 1 > limit) {
+					break;
+				}
+				put(dst, array, offset + pos++, (byte) c);
+				i++;
+			} else if (c < 0x800) {
+				if (pos + 2 > limit) {
+					break;
+				}
+				put(dst, array, offset + pos++, (byte) (0xC0 | (c >> 6)));
+				put(dst, array, offset + pos++, (byte) (0x80 | (c & 0x3F)));
+				i++;
+			} else if (Character.isHighSurrogate(c) && i + 1 < json.length()
+					&& Character.isLowSurrogate(json.charAt(i + 1))) {
+				if (pos + 4 > limit) {
+					break;
+				}
+				int cp = Character.toCodePoint(c, json.charAt(i + 1));
+				put(dst, array, offset + pos++, (byte) (0xF0 | (cp >> 18)));
+				put(dst, array, offset + pos++,
+						(byte) (0x80 | ((cp >> 12) & 0x3F)));
+				put(dst, array, offset + pos++,
+						(byte) (0x80 | ((cp >> 6) & 0x3F)));
+				put(dst, array, offset + pos++, (byte) (0x80 | (cp & 0x3F)));
+				i += 2;
+			} else if (Character.isSurrogate(c)) {
+				if (pos + 1 > limit) {
+					break;
+				}
+				put(dst, array, offset + pos++, MALFORMED);
+				i++;
+			} else {
+				if (pos + 3 > limit) {
+					break;
+				}
+				put(dst, array, offset + pos++, (byte) (0xE0 | (c >> 12)));
+				put(dst, array, offset + pos++,
+						(byte) (0x80 | ((c >> 6) & 0x3F)));
+				put(dst, array, offset + pos++, (byte) (0x80 | (c & 0x3F)));
+				i++;
+			}
+		}
+
+		dst.position(pos);
+		this.position = i;
+		return pos - start;
+	}
+
+	private static void put(@NotNull ByteBuffer dst, byte[] array, int index,
+			byte b) {
+		if (array != null) {
+			array[index] = b;
+		} else {
+			dst.put(index, b);
+		}
+	}
+
+}
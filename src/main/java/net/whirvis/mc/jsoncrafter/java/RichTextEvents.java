@@ -0,0 +1,122 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events for rich text being encoded, decoded, and
+ * rendered via templates. This makes it possible to tie lag spikes seen in a
+ * recording to the text which caused them.
+ * <p>
+ * The Flight Recorder API is not present in every JVM this library runs on.
+ * As such, it is only ever touched via {@link JfrEvents} after checking that
+ * it is present. Events are passed around as plain objects, so that no other
+ * class refers to the API directly. When the API is missing, or none of the
+ * events are being recorded, each method here returns right away.
+ */
+final class RichTextEvents {
+
+	private static final boolean AVAILABLE = isAvailable();
+
+	private RichTextEvents() {
+		/* static class */
+	}
+
+	private static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false,
+					RichTextEvents.class.getClassLoader());
+			Class.forName(JfrEvents.class.getName(), true,
+					RichTextEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false; /* running on a JVM without JFR */
+		}
+	}
+
+	/**
+	 * Begins an event for text being encoded.
+	 *
+	 * @return the event, or {@code null} if it is not being recorded.
+	 */
+	@Nullable
+	static Object beginSerialize() {
+		return AVAILABLE ? JfrEvents.beginSerialize() : null;
+	}
+
+	/**
+	 * Commits an event for text being encoded.
+	 *
+	 * @param event
+	 *            the event returned by {@link #beginSerialize()}.
+	 * @param text
+	 *            the text which was encoded.
+	 * @param method
+	 *            how the text was encoded.
+	 * @param outputSize
+	 *            the size of the JSON as UTF-8, or {@code -1} if the text was
+	 *            not encoded to a string.
+	 */
+	static void commitSerialize(@NotNull Object event, @NotNull RichText text,
+			@NotNull String method, long outputSize) {
+		JfrEvents.commitSerialize(event, text, method, outputSize);
+	}
+
+	/**
+	 * Begins an event for text being decoded.
+	 *
+	 * @return the event, or {@code null} if it is not being recorded.
+	 */
+	@Nullable
+	static Object beginParse() {
+		return AVAILABLE ? JfrEvents.beginParse() : null;
+	}
+
+	/**
+	 * Commits an event for text being decoded.
+	 *
+	 * @param event
+	 *            the event returned by {@link #beginParse()}.
+	 * @param text
+	 *            the text which was decoded.
+	 * @param inputSize
+	 *            the size of the JSON as UTF-8.
+	 */
+	static void commitParse(@NotNull Object event, @NotNull RichText text,
+			long inputSize) {
+		JfrEvents.commitParse(event, text, inputSize);
+	}
+
+	/**
+	 * Begins an event for a template being rendered.
+	 *
+	 * @return the event, or {@code null} if it is not being recorded.
+	 */
+	@Nullable
+	static Object beginRender() {
+		return AVAILABLE ? JfrEvents.beginRender() : null;
+	}
+
+	/**
+	 * Commits an event for a template being rendered.
+	 *
+	 * @param event
+	 *            the event returned by {@link #beginRender()}.
+	 * @param textType
+	 *            the content type of the template text.
+	 * @param nodeCount
+	 *            the number of pieces of text in the template.
+	 * @param depth
+	 *            how deeply text in the template is nested.
+	 * @param placeholders
+	 *            the number of slots values were written to.
+	 * @param outputSize
+	 *            the size of the rendered JSON as UTF-8.
+	 */
+	static void commitRender(@NotNull Object event, @NotNull String textType,
+			int nodeCount, int depth, int placeholders, long outputSize) {
+		JfrEvents.commitRender(event, textType, nodeCount, depth,
+				placeholders, outputSize);
+	}
+
+}
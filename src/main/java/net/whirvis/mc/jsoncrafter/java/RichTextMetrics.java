@@ -0,0 +1,83 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens for rich text being encoded, so that time spent encoding text and
+ * how effective its caching is can be monitored. Metrics are set globally,
+ * via {@link RichText#setMetrics(RichTextMetrics)}.
+ * <p>
+ * All methods do nothing by default, so implementations only need to
+ * override those they are interested in. They can be called from any thread,
+ * and should return quickly. When no metrics are set (the default), nothing
+ * is measured at all.
+ *
+ * @see RichTextMetricsRecorder
+ */
+public interface RichTextMetrics {
+
+	/**
+	 * Metrics which record nothing. This is the default.
+	 */
+	RichTextMetrics NONE = new RichTextMetrics() {
+	};
+
+	/**
+	 * Called after text has been encoded by {@link RichText#toString()}. This
+	 * is not called when its JSON was already cached.
+	 *
+	 * @param text
+	 *            the text which was encoded.
+	 * @param nanos
+	 *            how long encoding took, in nanoseconds.
+	 * @param utf8Length
+	 *            the size of the JSON when encoded as UTF-8.
+	 * @param nodes
+	 *            how many pieces of text were encoded. Those whose JSON was
+	 *            already cached are not included, as they were not encoded
+	 *            again.
+	 */
+	default void recordToString(@NotNull RichText text, long nanos,
+			long utf8Length, int nodes) {
+		/* optional override */
+	}
+
+	/**
+	 * Called after text has been converted to a JSON object by
+	 * {@link RichText#toJson()}.
+	 *
+	 * @param text
+	 *            the text which was converted.
+	 * @param nanos
+	 *            how long converting took, in nanoseconds.
+	 * @param nodes
+	 *            how many pieces of text were converted. This is the text
+	 *            itself, along with all of its extras.
+	 */
+	default void recordToJson(@NotNull RichText text, long nanos, int nodes) {
+		/* optional override */
+	}
+
+	/**
+	 * Called when the cached JSON of text is used, rather than encoding it
+	 * again. This includes text nested inside of the text being encoded.
+	 *
+	 * @param text
+	 *            the text whose cached JSON was used.
+	 */
+	default void recordCacheHit(@NotNull RichText text) {
+		/* optional override */
+	}
+
+	/**
+	 * Called when text must be encoded, as it has no JSON cached. This
+	 * includes text nested inside of the text being encoded.
+	 *
+	 * @param text
+	 *            the text which must be encoded.
+	 */
+	default void recordCacheMiss(@NotNull RichText text) {
+		/* optional override */
+	}
+
+}
@@ -0,0 +1,320 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Metrics which keep counts and histograms of text encoding in memory. It is
+ * safe to record to from many threads at once. For example:
+ *
+ * <pre>
+ * RichTextMetricsRecorder recorder = new RichTextMetricsRecorder();
+ * RichText.setMetrics(recorder);
+ * // ...
+ * System.out.println(recorder);
+ * </pre>
+ */
+public class RichTextMetricsRecorder implements RichTextMetrics {
+
+	/**
+	 * A histogram of values which are zero or greater. Values are counted in
+	 * buckets by their power of two, so percentiles are only approximate.
+	 * However, recording a value never allocates.
+	 */
+	public static final class Histogram {
+
+		private static final int BUCKETS = Long.SIZE;
+
+		private final AtomicLongArray buckets;
+		private final LongAdder count;
+		private final LongAdder sum;
+		private final LongAccumulator max;
+
+		private Histogram() {
+			this.buckets = new AtomicLongArray(BUCKETS);
+			this.count = new LongAdder();
+			this.sum = new LongAdder();
+			this.max = new LongAccumulator(Math::max, 0L);
+		}
+
+		/*
+		 * Bucket zero holds zero, while every other bucket holds the values
+		 * which need exactly that many bits.
+		 */
+		private static int getBucket(long value) {
+			return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+		}
+
+		private static long getUpperBound(int bucket) {
+			return (1L << bucket) - 1; /* overflows to MAX_VALUE for 63 */
+		}
+
+		private void record(long value) {
+			value = Math.max(value, 0L);
+			buckets.incrementAndGet(getBucket(value));
+			count.increment();
+			sum.add(value);
+			max.accumulate(value);
+		}
+
+		private void reset() {
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets.set(i, 0L);
+			}
+			count.reset();
+			sum.reset();
+			max.reset();
+		}
+
+		/**
+		 * Returns the number of values recorded.
+		 *
+		 * @return the number of values recorded.
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * Returns the sum of all values recorded.
+		 *
+		 * @return the sum of all values recorded.
+		 */
+		public long getSum() {
+			return sum.sum();
+		}
+
+		/**
+		 * Returns the largest value recorded.
+		 *
+		 * @return the largest value recorded, {@code 0} if none have been
+		 *         recorded.
+		 */
+		public long getMax() {
+			return max.get();
+		}
+
+		/**
+		 * Returns the mean of all values recorded.
+		 *
+		 * @return the mean of all values recorded, {@code 0} if none have
+		 *         been recorded.
+		 */
+		public double getMean() {
+			long count = this.getCount();
+			return count > 0 ? (double) this.getSum() / count : 0.0D;
+		}
+
+		/**
+		 * Returns an approximate percentile of the values recorded. The value
+		 * returned is never less than the actual percentile, and is at most
+		 * twice as large.
+		 *
+		 * @param percentile
+		 *            the percentile, from {@code 0.0} to {@code 1.0}.
+		 * @return the approximate percentile, {@code 0} if no values have
+		 *         been recorded.
+		 * @throws IllegalArgumentException
+		 *             if {@code percentile} is not within {@code 0.0} to
+		 *             {@code 1.0}.
+		 */
+		public long getPercentile(double percentile) {
+			if (!(percentile >= 0.0D && percentile <= 1.0D)) {
+				throw new IllegalArgumentException("percentile out of range");
+			}
+
+			long[] counts = new long[BUCKETS];
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = buckets.get(i);
+				total += counts[i];
+			}
+			if (total <= 0) {
+				return 0L;
+			}
+
+			long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(getUpperBound(i), this.getMax());
+				}
+			}
+			return this.getMax();
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + this.getCount() + ", mean="
+					+ String.format("%.1f", this.getMean()) + ", p50="
+					+ this.getPercentile(0.50D) + ", p99="
+					+ this.getPercentile(0.99D) + ", max=" + this.getMax();
+		}
+
+	}
+
+	private final Histogram toStringNanos;
+	private final Histogram toStringUtf8Length;
+	private final Histogram toStringNodes;
+	private final Histogram toJsonNanos;
+	private final Histogram toJsonNodes;
+	private final LongAdder cacheHits;
+	private final LongAdder cacheMisses;
+
+	/**
+	 * Constructs a new {@code RichTextMetricsRecorder}.
+	 */
+	public RichTextMetricsRecorder() {
+		this.toStringNanos = new Histogram();
+		this.toStringUtf8Length = new Histogram();
+		this.toStringNodes = new Histogram();
+		this.toJsonNanos = new Histogram();
+		this.toJsonNodes = new Histogram();
+		this.cacheHits = new LongAdder();
+		this.cacheMisses = new LongAdder();
+	}
+
+	@Override
+	public void recordToString(@NotNull RichText text, long nanos,
+			long utf8Length, int nodes) {
+		toStringNanos.record(nanos);
+		toStringUtf8Length.record(utf8Length);
+		toStringNodes.record(nodes);
+	}
+
+	@Override
+	public void recordToJson(@NotNull RichText text, long nanos, int nodes) {
+		toJsonNanos.record(nanos);
+		toJsonNodes.record(nodes);
+	}
+
+	@Override
+	public void recordCacheHit(@NotNull RichText text) {
+		cacheHits.increment();
+	}
+
+	@Override
+	public void recordCacheMiss(@NotNull RichText text) {
+		cacheMisses.increment();
+	}
+
+	/**
+	 * Returns how long each call to {@link RichText#toString()} which
+	 * encoded text took, in nanoseconds.
+	 *
+	 * @return how long each call to {@code toString()} took.
+	 */
+	@NotNull
+	public Histogram getToStringNanos() {
+		return this.toStringNanos;
+	}
+
+	/**
+	 * Returns the size of the JSON encoded by each call to
+	 * {@link RichText#toString()}, when encoded as UTF-8.
+	 *
+	 * @return the size of the JSON encoded by each call to
+	 *         {@code toString()}.
+	 */
+	@NotNull
+	public Histogram getToStringUtf8Length() {
+		return this.toStringUtf8Length;
+	}
+
+	/**
+	 * Returns how many pieces of text were encoded by each call to
+	 * {@link RichText#toString()}.
+	 *
+	 * @return how many pieces of text were encoded by each call to
+	 *         {@code toString()}.
+	 */
+	@NotNull
+	public Histogram getToStringNodes() {
+		return this.toStringNodes;
+	}
+
+	/**
+	 * Returns how long each call to {@link RichText#toJson()} took, in
+	 * nanoseconds.
+	 *
+	 * @return how long each call to {@code toJson()} took.
+	 */
+	@NotNull
+	public Histogram getToJsonNanos() {
+		return this.toJsonNanos;
+	}
+
+	/**
+	 * Returns how many pieces of text were converted by each call to
+	 * {@link RichText#toJson()}.
+	 *
+	 * @return how many pieces of text were converted by each call to
+	 *         {@code toJson()}.
+	 */
+	@NotNull
+	public Histogram getToJsonNodes() {
+		return this.toJsonNodes;
+	}
+
+	/**
+	 * Returns how many times the cached JSON of text was used.
+	 *
+	 * @return how many times the cached JSON of text was used.
+	 */
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	/**
+	 * Returns how many times text had to be encoded, as it had no JSON
+	 * cached.
+	 *
+	 * @return how many times text had to be encoded.
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	/**
+	 * Returns the fraction of lookups which found JSON cached.
+	 *
+	 * @return the fraction of lookups which found JSON cached, from
+	 *         {@code 0.0} to {@code 1.0}. If there have been no lookups,
+	 *         {@code 0.0} is returned.
+	 */
+	public double getCacheHitRatio() {
+		long hits = this.getCacheHits();
+		long lookups = hits + this.getCacheMisses();
+		return lookups > 0 ? (double) hits / lookups : 0.0D;
+	}
+
+	/**
+	 * Resets all counts and histograms back to zero.
+	 */
+	public void reset() {
+		toStringNanos.reset();
+		toStringUtf8Length.reset();
+		toStringNodes.reset();
+		toJsonNanos.reset();
+		toJsonNodes.reset();
+		cacheHits.reset();
+		cacheMisses.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "toString nanos: " + toStringNanos + "\n"
+				+ "toString UTF-8 length: " + toStringUtf8Length + "\n"
+				+ "toString nodes: " + toStringNodes + "\n"
+				+ "toJson nanos: " + toJsonNanos + "\n"
+				+ "toJson nodes: " + toJsonNodes + "\n"
+				+ "cache hits: " + this.getCacheHits() + ", misses: "
+				+ this.getCacheMisses() + ", ratio: "
+				+ String.format("%.3f", this.getCacheHitRatio());
+	}
+
+}
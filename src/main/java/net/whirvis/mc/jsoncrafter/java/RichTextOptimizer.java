@@ -0,0 +1,252 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.JsonIOException;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+
+/**
+ * Shrinks the JSON of rich text without changing how it is displayed.
+ * <p>
+ * Text built programmatically often repeats parameters its extras would have
+ * inherited anyway, or splits what could be a single piece of text into many.
+ * The optimizer does the following:
+ * <ul>
+ * <li>Removes style parameters and events from extras which are the same as
+ * those they inherit from their parent.</li>
+ * <li>Removes empty plain text which has no extras, as it displays nothing.
+ * </li>
+ * <li>Replaces unstyled, empty plain text with its extras.</li>
+ * <li>Merges adjacent plain text with the same style and events.</li>
+ * </ul>
+ * <p>
+ * Parameters which are not inherited from a parent (e.g., those at the top
+ * level of text) are always kept. This is because their defaults depend on
+ * where the text is shown. For example, item lore is italic by default, while
+ * chat is not.
+ *
+ * @see RichTextWriter#setCompact(boolean)
+ */
+public final class RichTextOptimizer {
+
+	private RichTextOptimizer() {
+		/* static class */
+	}
+
+	/**
+	 * Returns an optimized copy of the given text. The text itself is left
+	 * unchanged.
+	 *
+	 * @param text
+	 *            the text to optimize.
+	 * @return an optimized copy of {@code text}.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	@NotNull
+	public static RichText optimize(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		RichText optimized = text.copy();
+		optimizeTree(optimized);
+
+		/*
+		 * Unstyled, empty text with a single extra displays the same as that
+		 * extra on its own, since there is nothing for the extra to inherit.
+		 */
+		while (isEmptyPlain(optimized) && optimized.getStyle().isEmpty()
+				&& !optimized.hasEvents()
+				&& optimized.getExtra().size() == 1) {
+			optimized = optimized.getExtra().get(0);
+		}
+		return optimized;
+	}
+
+	/**
+	 * Returns the JSON of the given text, optimized and written in its most
+	 * compact form.
+	 *
+	 * @param text
+	 *            the text to minify.
+	 * @return the minified JSON of {@code text}.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @see #optimize(RichText)
+	 * @see RichTextWriter#setCompact(boolean)
+	 */
+	@NotNull
+	public static String minify(@NotNull RichText text) {
+		RichText optimized = optimize(text);
+		StringWriter json = new StringWriter();
+		RichTextWriter out = new RichTextWriter(json);
+		out.setCompact(true);
+		try {
+			optimized.writeJson(out);
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+		return json.toString();
+	}
+
+	private static boolean isPlain(@NotNull RichText text) {
+		return text.getClass() == PlainText.class
+				&& text.getContent() instanceof String;
+	}
+
+	private static boolean isEmptyPlain(@NotNull RichText text) {
+		return isPlain(text) && ((String) text.getContent()).isEmpty();
+	}
+
+	@Nullable
+	private static <T> T strip(@Nullable T value, @Nullable T inherited) {
+		return Objects.equals(value, inherited) ? null : value;
+	}
+
+	@NotNull
+	private static Style strip(@NotNull Style style,
+			@NotNull Style inherited) {
+		return style
+				.withColor(strip(style.getColor(), inherited.getColor()))
+				.withFont(strip(style.getFont(), inherited.getFont()))
+				.withBold(strip(style.getBold(), inherited.getBold()))
+				.withItalic(strip(style.getItalic(), inherited.getItalic()))
+				.withStrikethrough(strip(style.getStrikethrough(),
+						inherited.getStrikethrough()))
+				.withUnderlined(strip(style.getUnderlined(),
+						inherited.getUnderlined()))
+				.withObfuscated(strip(style.getObfuscated(),
+						inherited.getObfuscated()))
+				.withInsertion(strip(style.getInsertion(),
+						inherited.getInsertion()));
+	}
+
+	/**
+	 * Optimizes text and its extras in place, as they are walked. Extras are
+	 * walked without recursion, so the style and events each text passes on
+	 * to its extras are kept on stacks of their own. Text is optimized before
+	 * its extras, and its extras are merged once they have been optimized.
+	 */
+	private static class Optimization
+			implements RichTextWalker.Visitor<RuntimeException> {
+
+		private final List<Style> styles = new ArrayList<>();
+		private final List<Map<String, TextEvent>> events = new ArrayList<>();
+
+		@Override
+		public boolean enterText(@NotNull RichText text) {
+			int top = styles.size() - 1;
+			Style inherited = top >= 0 ? styles.get(top) : Style.EMPTY;
+			Map<String, TextEvent> inheritedEvents =
+					top >= 0 ? events.get(top) : Collections.emptyMap();
+
+			text.setStyle(strip(text.getStyle(), inherited));
+			Style style = text.getStyle().inheritFrom(inherited);
+
+			Map<String, TextEvent> textEvents = new HashMap<>(inheritedEvents);
+			for (TextEvent event : new ArrayList<>(text.getEvents())) {
+				if (event.equals(inheritedEvents.get(event.getType()))) {
+					text.removeEvent(event);
+				} else {
+					textEvents.put(event.getType(), event);
+				}
+			}
+
+			/*
+			 * Arguments of translated text are optimized on their own, as they
+			 * are not treated as children by every version of the game.
+			 */
+			if (text instanceof TranslatedText) {
+				TranslatedText translated = (TranslatedText) text;
+				Object[] with = translated.getWith();
+				for (Object value : with) {
+					if (value instanceof RichText) {
+						optimizeTree((RichText) value);
+					}
+				}
+			}
+
+			if (text.getExtra().isEmpty()) {
+				return false; /* nothing to merge */
+			}
+			styles.add(style);
+			events.add(textEvents);
+			return true;
+		}
+
+		@Override
+		public void exitText(@NotNull RichText text) {
+			int top = styles.size() - 1;
+			styles.remove(top);
+			events.remove(top);
+
+			List<RichText> extra = text.getExtra();
+			List<RichText> optimized = new ArrayList<>(extra.size());
+			for (RichText child : extra) {
+				if (isEmptyPlain(child) && child.getStyle().isEmpty()
+						&& !child.hasEvents()) {
+					optimized.addAll(child.getExtra());
+				} else if (!isEmptyPlain(child)
+						|| !child.getExtra().isEmpty()) {
+					optimized.add(child);
+				}
+			}
+
+			List<RichText> merged = new ArrayList<>(optimized.size());
+			for (RichText child : optimized) {
+				int last = merged.size() - 1;
+				if (last >= 0 && canMerge(merged.get(last), child)) {
+					RichText previous = merged.get(last);
+					previous.setContent((String) previous.getContent()
+							+ (String) child.getContent());
+					previous.addExtra(child.getExtra());
+				} else {
+					merged.add(child);
+				}
+			}
+
+			text.clearExtra();
+			text.addExtra(merged);
+		}
+
+	}
+
+	private static void optimizeTree(@NotNull RichText text) {
+		RichTextWalker.forThread().walk(text, new Optimization());
+	}
+
+	private static boolean canMerge(@NotNull RichText previous,
+			@NotNull RichText next) {
+		if (!isPlain(previous) || !isPlain(next)) {
+			return false;
+		} else if (!previous.getExtra().isEmpty()) {
+			return false; /* the extras would end up out of order */
+		} else if (previous.getStyle() != next.getStyle()) {
+			return false;
+		}
+
+		Map<String, TextEvent> events = new HashMap<>();
+		for (TextEvent event : previous.getEvents()) {
+			events.put(event.getType(), event);
+		}
+		if (events.size() != next.getEvents().size()) {
+			return false;
+		}
+		for (TextEvent event : next.getEvents()) {
+			if (!event.equals(events.get(event.getType()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
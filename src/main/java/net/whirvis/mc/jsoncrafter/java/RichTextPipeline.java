@@ -0,0 +1,242 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Encodes rich text on another thread, so that text can be built on one
+ * thread (e.g., the main thread of a server) without having to encode it
+ * there as well.
+ * <p>
+ * When text is given to the pipeline, a snapshot of it is taken right away.
+ * This copies the text, but does not encode it. Later changes made to the
+ * text are not reflected in what is encoded. Text which is frozen, or which
+ * already has its JSON cached, is not copied at all.
+ * <p>
+ * Encoding does not start until {@link #flush()} is called. All text given
+ * to the pipeline since the last flush is then encoded together, as a single
+ * task on the executor. The intended use is to flush once per tick:
+ *
+ * <pre>
+ * RichTextPipeline pipeline = new RichTextPipeline(executor);
+ * Bukkit.getScheduler().runTaskTimer(plugin, pipeline::flush, 1L, 1L);
+ *
+ * pipeline.encode(text).thenAccept(json -&gt; send(player, json));
+ * </pre>
+ * <p>
+ * The methods of this class can be called from any thread.
+ *
+ * @see #newVirtualThreadExecutor()
+ */
+public class RichTextPipeline {
+
+	/**
+	 * Text waiting to be encoded, along with the future to complete once it
+	 * has been.
+	 *
+	 * @param <T>
+	 *            the type of encoded value.
+	 */
+	private static class Job<T> {
+
+		private final Supplier<T> encoder;
+		private final CompletableFuture<T> future;
+
+		private Job(@NotNull Supplier<T> encoder) {
+			this.encoder = encoder;
+			this.future = new CompletableFuture<>();
+		}
+
+		private void run() {
+			try {
+				future.complete(encoder.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}
+
+	}
+
+	private final Executor executor;
+	private final Queue<Job<?>> pending;
+
+	/**
+	 * Constructs a new {@code RichTextPipeline}.
+	 *
+	 * @param executor
+	 *            the executor to encode text on.
+	 * @throws NullPointerException
+	 *             if {@code executor} is {@code null}.
+	 */
+	public RichTextPipeline(@NotNull Executor executor) {
+		this.executor = Objects.requireNonNull(executor, "executor");
+		this.pending = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Constructs a new {@code RichTextPipeline} which encodes text on the
+	 * common {@link ForkJoinPool}.
+	 */
+	public RichTextPipeline() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates an executor which starts a new virtual thread for each task.
+	 * Virtual threads were added in Java 21. Since this library targets older
+	 * versions of Java, the executor is created reflectively.
+	 *
+	 * @return the executor, {@code null} if virtual threads are not supported
+	 *         by the running version of Java.
+	 */
+	@Nullable
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (NoSuchMethodException e) {
+			return null; /* before Java 19 */
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof UnsupportedOperationException) {
+				return null; /* preview features disabled */
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the executor text is encoded on.
+	 *
+	 * @return the executor text is encoded on.
+	 */
+	@NotNull
+	public final Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Returns how many pieces of text are waiting for the next flush.
+	 *
+	 * @return how many pieces of text are waiting for the next flush.
+	 */
+	public final int getPending() {
+		return pending.size();
+	}
+
+	@NotNull
+	private <T> CompletableFuture<T> submit(@NotNull Supplier<T> encoder) {
+		Job<T> job = new Job<>(encoder);
+		pending.add(job);
+		return job.future;
+	}
+
+	@NotNull
+	private static ByteBuffer toUtf8(@NotNull RichText text) {
+		RichTextEncoder encoder = new RichTextEncoder(text);
+		ByteBuffer buf = ByteBuffer.allocate(encoder.encodedLength());
+		encoder.encode(buf);
+		buf.flip();
+		return buf;
+	}
+
+	/**
+	 * Encodes text to a JSON string on the executor of this pipeline.
+	 *
+	 * @param text
+	 *            the text to encode.
+	 * @return a future which is completed with the encoded JSON, or with the
+	 *         exception thrown while encoding.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @see RichText#toString()
+	 */
+	@NotNull
+	public CompletableFuture<String> encode(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		if (text.hasCachedJson()) {
+			return CompletableFuture.completedFuture(text.toString());
+		}
+		RichText snapshot = text.snapshot();
+		return this.submit(snapshot::toString);
+	}
+
+	/**
+	 * Encodes text to UTF-8 encoded JSON on the executor of this pipeline.
+	 *
+	 * @param text
+	 *            the text to encode.
+	 * @return a future which is completed with a buffer holding exactly the
+	 *         encoded JSON (from its position to its limit), or with the
+	 *         exception thrown while encoding.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 * @see RichTextEncoder
+	 */
+	@NotNull
+	public CompletableFuture<ByteBuffer> encodeUtf8(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		if (text.hasCachedJson() && !text.isFrozen()) {
+			/* encoded later, so the text is free to change */
+			String json = text.toString();
+			return this.submit(() -> ByteBuffer
+					.wrap(json.getBytes(StandardCharsets.UTF_8)));
+		}
+		RichText snapshot = text.snapshot();
+		return this.submit(() -> toUtf8(snapshot));
+	}
+
+	/**
+	 * Hands all text given to this pipeline since the last flush to its
+	 * executor, to be encoded as a single task. If there is none, this does
+	 * nothing.
+	 * 
+	 * @throws RejectedExecutionException
+	 *             if the executor rejects the task. The futures of all text
+	 *             in the batch are completed with this exception.
+	 */
+	public void flush() {
+		List<Job<?>> batch = new ArrayList<>();
+		Job<?> job;
+		while ((job = pending.poll()) != null) {
+			batch.add(job);
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				for (Job<?> encode : batch) {
+					encode.run();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			/* otherwise, the futures would never complete */
+			for (Job<?> rejected : batch) {
+				rejected.future.completeExceptionally(e);
+			}
+			throw e;
+		}
+	}
+
+}
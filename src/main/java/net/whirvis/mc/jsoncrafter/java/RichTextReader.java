@@ -0,0 +1,1007 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverTooltip;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipEntity;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipItem;
+
+/**
+ * A JSON reader which decodes rich text directly from its source, without
+ * first building a tree of JSON elements. Text is built in a single pass as
+ * it is read.
+ * <p>
+ * The same shorthands accepted by the game are accepted here. That is, a bare
+ * string (or number, or boolean) is read as {@link PlainText}, and an array is
+ * read as its first element with the rest added as its extras. Hover events in
+ * the legacy {@code value} form are accepted as well as those in the
+ * {@code contents} form. For example:
+ *
+ * <pre>
+ * RichTextReader in = new RichTextReader(reader);
+ * RichText text = in.nextText();
+ * </pre>
+ * <p>
+ * As in game, events with an unknown or malformed action are ignored.
+ * <p>
+ * Extras (and arrays of text) are read without recursion. Text nested in
+ * other ways (e.g., as a parameter of translated text, or within a hover
+ * event) is still read recursively.
+ *
+ * @see RichText#fromJson(String)
+ */
+public class RichTextReader extends JsonReader {
+
+	/**
+	 * Reads text from a JSON reader.
+	 *
+	 * @param in
+	 *            the reader to read from.
+	 * @return the text which was read.
+	 * @throws NullPointerException
+	 *             if {@code in} is {@code null}.
+	 * @throws JsonSyntaxException
+	 *             if the JSON is not valid text.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	@NotNull
+	public static RichText readText(@NotNull JsonReader in)
+			throws IOException {
+		Objects.requireNonNull(in, "in");
+		Deque<PartialText> partials = new ArrayDeque<>();
+		while (true) {
+			RichText text = beginText(in, partials);
+			PartialText partial;
+			while ((partial = partials.peek()) != null) {
+				if (text != null) {
+					partial.addExtra(text);
+					text = null;
+				}
+				if (partial.nextExtra(in)) {
+					break; /* read it on the next pass */
+				}
+				partials.pop();
+				text = partial.build(in);
+			}
+			if (partials.isEmpty()) {
+				return text;
+			}
+		}
+	}
+
+	/*
+	 * Begins reading the next value as text. Text which has no extras is read
+	 * in its entirety, and returned. Otherwise, the partially read text is
+	 * pushed and null is returned, so its extras can be read next.
+	 */
+	@Nullable
+	private static RichText beginText(@NotNull JsonReader in,
+			@NotNull Deque<PartialText> partials) throws IOException {
+		switch (in.peek()) {
+			case STRING:
+				return new PlainText(in.nextString());
+			case NUMBER:
+				return new PlainText(nextNumber(in));
+			case BOOLEAN:
+				return new PlainText(in.nextBoolean());
+			case BEGIN_ARRAY:
+				in.beginArray();
+				if (!in.hasNext()) {
+					throw syntaxError(in, "empty text array");
+				}
+				partials.push(new PartialSiblings());
+				return null;
+			case BEGIN_OBJECT:
+				in.beginObject();
+				partials.push(new PartialObject());
+				return null;
+			default:
+				throw syntaxError(in, "expected text");
+		}
+	}
+
+	/**
+	 * Reads a text event from a JSON reader. The type of the event is
+	 * determined by its action.
+	 *
+	 * @param in
+	 *            the reader to read from.
+	 * @return the event which was read, {@code null} if its action is unknown
+	 *         or the event is malformed.
+	 * @throws NullPointerException
+	 *             if {@code in} is {@code null}.
+	 * @throws JsonSyntaxException
+	 *             if the JSON is not an object.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	@Nullable
+	public static TextEvent readEvent(@NotNull JsonReader in)
+			throws IOException {
+		Objects.requireNonNull(in, "in");
+		return readEvent(in, null);
+	}
+
+	@NotNull
+	private static JsonSyntaxException syntaxError(@NotNull JsonReader in,
+			@NotNull String message) {
+		return new JsonSyntaxException(message + " at path " + in.getPath());
+	}
+
+	/*
+	 * Numbers are kept as the narrowest type which holds them exactly, so
+	 * that they are written back the same as they were read.
+	 */
+	@NotNull
+	private static Number nextNumber(@NotNull JsonReader in)
+			throws IOException {
+		String literal = in.nextString();
+		try {
+			long value = Long.parseLong(literal);
+			if (value == (int) value) {
+				return (int) value;
+			}
+			return value;
+		} catch (NumberFormatException e) {
+			return Double.parseDouble(literal);
+		}
+	}
+
+	@Nullable
+	private static Object nextValue(@NotNull JsonReader in)
+			throws IOException {
+		switch (in.peek()) {
+			case STRING:
+				return in.nextString();
+			case NUMBER:
+				return nextNumber(in);
+			case BOOLEAN:
+				return in.nextBoolean();
+			case NULL:
+				in.nextNull();
+				return null;
+			default:
+				return readText(in);
+		}
+	}
+
+	/**
+	 * Text which has been partially read, and is waiting on its extras to be
+	 * read. Extras are read without recursion, so the text they belong to is
+	 * kept on a stack of these until all of them have been read.
+	 */
+	private static abstract class PartialText {
+
+		/**
+		 * Reads up to the next extra of this text.
+		 *
+		 * @param in
+		 *            the reader to read from.
+		 * @return {@code true} if the next value of {@code in} is an extra of
+		 *         this text, {@code false} if this text has been read in its
+		 *         entirety.
+		 * @throws IOException
+		 *             if an I/O error occurs.
+		 */
+		abstract boolean nextExtra(@NotNull JsonReader in) throws IOException;
+
+		abstract void addExtra(@NotNull RichText extra);
+
+		@NotNull
+		abstract RichText build(@NotNull JsonReader in);
+
+	}
+
+	/**
+	 * An array of text, read as its first element with the rest added as its
+	 * extras.
+	 */
+	private static class PartialSiblings extends PartialText {
+
+		private RichText text;
+
+		@Override
+		boolean nextExtra(@NotNull JsonReader in) throws IOException {
+			if (in.hasNext()) {
+				return true;
+			}
+			in.endArray();
+			return false;
+		}
+
+		@Override
+		void addExtra(@NotNull RichText extra) {
+			if (text == null) {
+				this.text = extra;
+			} else {
+				text.addExtra(extra);
+			}
+		}
+
+		@Override
+		@NotNull
+		RichText build(@NotNull JsonReader in) {
+			return this.text;
+		}
+
+	}
+
+	/**
+	 * A JSON object of text. Its members are read up to its extras, which are
+	 * read before the members after them.
+	 */
+	private static class PartialObject extends PartialText {
+
+		private Object content;
+		private String translate;
+		private List<Object> with;
+		private String keybind;
+		private String selector;
+		private Map<String, Object> score;
+		private List<RichText> extra;
+		private boolean inExtra;
+		private Style style = Style.EMPTY;
+		private List<TextEvent> events;
+
+		@Override
+		boolean nextExtra(@NotNull JsonReader in) throws IOException {
+			if (inExtra) {
+				if (in.hasNext()) {
+					return true;
+				}
+				in.endArray();
+				this.inExtra = false;
+			}
+
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue; /* treated as absent */
+				}
+
+				switch (name) {
+					case "text":
+						JsonToken token = in.peek();
+						if (token == JsonToken.BEGIN_OBJECT
+								|| token == JsonToken.BEGIN_ARRAY) {
+							throw syntaxError(in, "expected text content");
+						}
+						this.content = nextValue(in);
+						break;
+					case "translate":
+						this.translate = in.nextString();
+						break;
+					case "with":
+						this.with = new ArrayList<>();
+						in.beginArray();
+						while (in.hasNext()) {
+							with.add(nextValue(in));
+						}
+						in.endArray();
+						break;
+					case "keybind":
+						this.keybind = in.nextString();
+						break;
+					case "selector":
+						this.selector = in.nextString();
+						break;
+					case "score":
+						this.score = new LinkedHashMap<>();
+						in.beginObject();
+						while (in.hasNext()) {
+							String key = in.nextName();
+							score.put(key, nextValue(in));
+						}
+						in.endObject();
+						break;
+					case "extra":
+						this.extra = new ArrayList<>();
+						in.beginArray();
+						if (in.hasNext()) {
+							this.inExtra = true;
+							return true;
+						}
+						in.endArray();
+						break;
+					case "color":
+						this.style = style.withColor(in.nextString());
+						break;
+					case "font":
+						this.style = style.withFont(in.nextString());
+						break;
+					case "bold":
+						this.style = style.withBold(in.nextBoolean());
+						break;
+					case "italic":
+						this.style = style.withItalic(in.nextBoolean());
+						break;
+					case "strikethrough":
+						this.style = style.withStrikethrough(in.nextBoolean());
+						break;
+					case "underlined":
+						this.style = style.withUnderlined(in.nextBoolean());
+						break;
+					case "obfuscated":
+						this.style = style.withObfuscated(in.nextBoolean());
+						break;
+					case "insertion":
+						this.style = style.withInsertion(in.nextString());
+						break;
+					case "clickEvent":
+					case "hoverEvent":
+						TextEvent event = readEvent(in, name);
+						if (event != null) {
+							if (events == null) {
+								this.events = new ArrayList<>(2);
+							}
+							events.add(event);
+						}
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			return false;
+		}
+
+		@Override
+		void addExtra(@NotNull RichText text) {
+			extra.add(text);
+		}
+
+		@Override
+		@NotNull
+		RichText build(@NotNull JsonReader in) {
+			/*
+			 * When more than one kind of content is present, the game picks
+			 * the first in this order. The rest are ignored.
+			 */
+			RichText text;
+			if (content != null) {
+				text = new PlainText(content);
+			} else if (translate != null) {
+				text = new TranslatedText(translate,
+						with != null ? with.toArray() : null);
+			} else if (score != null) {
+				text = new RichText("score", score);
+			} else if (selector != null) {
+				text = new RichText("selector", selector);
+			} else if (keybind != null) {
+				text = new KeybindText(keybind);
+			} else {
+				throw syntaxError(in, "unsupported text type");
+			}
+
+			if (extra != null) {
+				text.addExtra(extra);
+			}
+			text.setStyle(style);
+			if (events != null) {
+				for (TextEvent event : events) {
+					text.addEvent(event);
+				}
+			}
+			return text;
+		}
+
+	}
+
+	/*
+	 * The value of an event can only be interpreted once its action is known.
+	 * The game (and this library) always write the action first, so it almost
+	 * always is. When it is not, the value is read into a JSON element, and
+	 * interpreted once the whole event has been read.
+	 */
+	@Nullable
+	private static TextEvent readEvent(@NotNull JsonReader in,
+			@Nullable String type) throws IOException {
+		String action = null;
+		Object value = null;
+		Object contents = null;
+		JsonElement bufferedValue = null;
+		JsonElement bufferedContents = null;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue; /* treated as absent */
+			}
+
+			switch (name) {
+				case "action":
+					action = in.nextString();
+					break;
+				case "value":
+					if (action != null) {
+						value = readEventValue(in, type, action, true);
+					} else {
+						bufferedValue = JsonParser.parseReader(in);
+					}
+					break;
+				case "contents":
+					if (action != null) {
+						contents = readEventValue(in, type, action, false);
+					} else {
+						bufferedContents = JsonParser.parseReader(in);
+					}
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+
+		if (action == null) {
+			/* written by this library for events without an action */
+			if ("clickEvent".equals(type)) {
+				return new ClickEvent();
+			} else if ("hoverEvent".equals(type)) {
+				return new HoverEvent();
+			}
+			return null;
+		}
+		if (bufferedValue != null) {
+			JsonReader buffered = reread(bufferedValue);
+			value = readEventValue(buffered, type, action, true);
+		}
+		if (bufferedContents != null) {
+			JsonReader buffered = reread(bufferedContents);
+			contents = readEventValue(buffered, type, action, false);
+		}
+
+		if (!"hoverEvent".equals(type)) {
+			ClickEvent click = new ClickEvent();
+			if (click.supportsAction(action)) {
+				return toClickEvent(click, action, value);
+			}
+		}
+		if (!"clickEvent".equals(type)) {
+			HoverEvent hover = new HoverEvent();
+			if (hover.supportsAction(action)) {
+				return toHoverEvent(hover, action,
+						contents != null ? contents : value);
+			}
+		}
+		return null; /* unknown action */
+	}
+
+	@NotNull
+	private static JsonReader reread(@NotNull JsonElement element) {
+		return new JsonReader(new StringReader(element.toString()));
+	}
+
+	@Nullable
+	private static Object readEventValue(@NotNull JsonReader in,
+			@Nullable String type, @NotNull String action, boolean legacy)
+			throws IOException {
+		boolean hover = !"clickEvent".equals(type)
+				&& new HoverEvent().supportsAction(action);
+		if (!hover) {
+			/* click events always have a primitive value */
+			switch (in.peek()) {
+				case STRING:
+				case NUMBER:
+					return in.nextString();
+				case BOOLEAN:
+					return Boolean.toString(in.nextBoolean());
+				default:
+					in.skipValue();
+					return null;
+			}
+		}
+
+		switch (action) {
+			case HoverEvent.SHOW_TEXT:
+				return readHoverText(in);
+			case HoverEvent.SHOW_ITEM:
+				if (legacy) {
+					return parseItem(readText(in));
+				}
+				return readItem(in);
+			case HoverEvent.SHOW_ENTITY:
+				if (legacy) {
+					return parseEntity(readText(in));
+				}
+				return readEntity(in);
+			default:
+				in.skipValue();
+				return null;
+		}
+	}
+
+	@Nullable
+	private static TextEvent toClickEvent(@NotNull ClickEvent click,
+			@NotNull String action, @Nullable Object value) {
+		click.setAction(action);
+		if (value == null) {
+			return click;
+		}
+		String str = (String) value;
+		try {
+			switch (action) {
+				case ClickEvent.OPEN_URL:
+					return click.setURL(str);
+				case ClickEvent.CHANGE_PAGE:
+					return click.setPage(Integer.parseInt(str.trim()));
+				default:
+					return click.setText(str);
+			}
+		} catch (IllegalArgumentException e) {
+			return null; /* malformed URL or page */
+		}
+	}
+
+	@Nullable
+	private static TextEvent toHoverEvent(@NotNull HoverEvent hover,
+			@NotNull String action, @Nullable Object value) {
+		if (value instanceof List) {
+			return hover.show((List<?>) value);
+		} else if (value instanceof HoverTooltip) {
+			return hover.show((HoverTooltip) value);
+		} else if (HoverEvent.SHOW_TEXT.equals(action)) {
+			hover.setAction(action);
+			return hover;
+		}
+		return null; /* item and entity tooltips are required */
+	}
+
+	/*
+	 * This library writes a tooltip with multiple texts as an array. To
+	 * read this back as it was written, the elements of an array are kept
+	 * as separate texts rather than as siblings.
+	 */
+	@NotNull
+	private static List<RichText> readHoverText(@NotNull JsonReader in)
+			throws IOException {
+		List<RichText> texts = new ArrayList<>();
+		if (in.peek() == JsonToken.BEGIN_ARRAY) {
+			in.beginArray();
+			while (in.hasNext()) {
+				texts.add(readText(in));
+			}
+			in.endArray();
+		} else {
+			texts.add(readText(in));
+		}
+		return texts;
+	}
+
+	@Nullable
+	private static TooltipItem readItem(@NotNull JsonReader in)
+			throws IOException {
+		if (in.peek() == JsonToken.STRING) {
+			return new TooltipItem(in.nextString());
+		} else if (in.peek() != JsonToken.BEGIN_OBJECT) {
+			in.skipValue();
+			return null;
+		}
+
+		TooltipItem item = new TooltipItem();
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue; /* treated as absent */
+			}
+
+			switch (name) {
+				case "id":
+					item.setId(in.nextString());
+					break;
+				case "count":
+					item.setCount(in.nextInt());
+					break;
+				case "tag":
+					item.setTag(in.nextString());
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return item;
+	}
+
+	@Nullable
+	private static TooltipEntity readEntity(@NotNull JsonReader in)
+			throws IOException {
+		if (in.peek() != JsonToken.BEGIN_OBJECT) {
+			in.skipValue();
+			return null;
+		}
+
+		String entityName = null;
+		String type = null;
+		UUID id = null;
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue; /* treated as absent */
+			}
+
+			switch (name) {
+				case "name":
+					if (in.peek() == JsonToken.STRING) {
+						entityName = in.nextString();
+					} else {
+						entityName = getPlainContents(readText(in));
+					}
+					break;
+				case "type":
+					type = in.nextString();
+					break;
+				case "id":
+					id = readUuid(in);
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return id != null ? new TooltipEntity(entityName, type, id) : null;
+	}
+
+	/*
+	 * Entity IDs are written as a string, but the game also accepts them as
+	 * an array of four integers (most significant first).
+	 */
+	@Nullable
+	private static UUID readUuid(@NotNull JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.STRING) {
+			return parseUuid(in.nextString());
+		} else if (in.peek() != JsonToken.BEGIN_ARRAY) {
+			in.skipValue();
+			return null;
+		}
+
+		int[] ints = new int[4];
+		int count = 0;
+		in.beginArray();
+		while (in.hasNext()) {
+			int value = in.nextInt();
+			if (count < ints.length) {
+				ints[count] = value;
+			}
+			count++;
+		}
+		in.endArray();
+		return count == ints.length ? toUuid(ints) : null;
+	}
+
+	@Nullable
+	private static UUID parseUuid(@Nullable String uuid) {
+		if (uuid == null) {
+			return null;
+		}
+		try {
+			return UUID.fromString(uuid);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	@NotNull
+	private static UUID toUuid(@NotNull int[] ints) {
+		long most = ((long) ints[0] << 32) | (ints[1] & 0xFFFFFFFFL);
+		long least = ((long) ints[2] << 32) | (ints[3] & 0xFFFFFFFFL);
+		return new UUID(most, least);
+	}
+
+	@NotNull
+	private static String getPlainContents(@NotNull RichText text) {
+		List<RichText> texts = new ArrayList<>();
+		texts.add(text);
+		texts.addAll(text.getExtra());
+		return RichText.getContents(texts);
+	}
+
+	/*
+	 * In the legacy form, item and entity tooltips are given as text whose
+	 * contents are SNBT (the string form of NBT). Only the top level of the
+	 * compound is parsed here, as nested compounds (e.g., an item's tag) are
+	 * kept as their SNBT string.
+	 */
+	@Nullable
+	private static TooltipItem parseItem(@NotNull RichText text) {
+		Map<String, String> nbt = Snbt.parseCompound(getPlainContents(text));
+		if (nbt == null) {
+			return null;
+		}
+		TooltipItem item = new TooltipItem(nbt.get("id"));
+		String count = nbt.get("Count");
+		if (count != null) {
+			try {
+				item.setCount(Integer.parseInt(Snbt.stripSuffix(count)));
+			} catch (IllegalArgumentException e) {
+				/* malformed count, leave it absent */
+			}
+		}
+		item.setTag(nbt.get("tag"));
+		return item;
+	}
+
+	@Nullable
+	private static TooltipEntity parseEntity(@NotNull RichText text) {
+		Map<String, String> nbt = Snbt.parseCompound(getPlainContents(text));
+		if (nbt == null) {
+			return null;
+		}
+
+		String idStr = nbt.get("id");
+		UUID id = parseUuid(idStr);
+		if (id == null && idStr != null) {
+			int[] ints = Snbt.parseIntArray(idStr);
+			id = ints != null && ints.length == 4 ? toUuid(ints) : null;
+		}
+		if (id == null) {
+			return null;
+		}
+
+		/* the name of an entity is itself JSON text in the legacy form */
+		String name = nbt.get("name");
+		if (name != null) {
+			try {
+				name = getPlainContents(RichText.fromJson(name));
+			} catch (RuntimeException e) {
+				/* not JSON text, keep it as is */
+			}
+		}
+		return new TooltipEntity(name, nbt.get("type"), id);
+	}
+
+	/**
+	 * A minimal reader for SNBT, just enough to read legacy tooltips.
+	 */
+	private static class Snbt {
+
+		private final String str;
+		private int pos;
+
+		private Snbt(@NotNull String str) {
+			this.str = str;
+		}
+
+		@Nullable
+		private static Map<String, String> parseCompound(@Nullable String str) {
+			if (str == null) {
+				return null;
+			}
+			try {
+				return new Snbt(str).compound();
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+
+		@Nullable
+		private static int[] parseIntArray(@NotNull String str) {
+			String trimmed = str.trim();
+			if (!trimmed.startsWith("[I;") || !trimmed.endsWith("]")) {
+				return null;
+			}
+			String[] elements =
+					trimmed.substring(3, trimmed.length() - 1).split(",");
+			int[] ints = new int[elements.length];
+			try {
+				for (int i = 0; i < elements.length; i++) {
+					ints[i] = Integer.parseInt(elements[i].trim());
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			return ints;
+		}
+
+		@NotNull
+		private static String stripSuffix(@NotNull String number) {
+			if (number.isEmpty()) {
+				return number;
+			}
+			char last = number.charAt(number.length() - 1);
+			return Character.isLetter(last)
+					? number.substring(0, number.length() - 1)
+					: number;
+		}
+
+		private void skipWhitespace() {
+			while (pos < str.length()
+					&& Character.isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private char peek() {
+			this.skipWhitespace();
+			if (pos >= str.length()) {
+				throw new IllegalArgumentException("unexpected end");
+			}
+			return str.charAt(pos);
+		}
+
+		private void expect(char c) {
+			if (this.peek() != c) {
+				throw new IllegalArgumentException("expected " + c);
+			}
+			pos++;
+		}
+
+		@NotNull
+		private Map<String, String> compound() {
+			Map<String, String> members = new HashMap<>();
+			this.expect('{');
+			if (this.peek() == '}') {
+				pos++;
+				return members;
+			}
+			do {
+				String key = this.peek() == '"' || this.peek() == '\''
+						? this.quoted()
+						: this.unquoted();
+				this.expect(':');
+				members.put(key, this.value());
+			} while (this.next());
+			return members;
+		}
+
+		private boolean next() {
+			char c = this.peek();
+			pos++;
+			if (c == ',') {
+				return true;
+			} else if (c == '}') {
+				return false;
+			}
+			throw new IllegalArgumentException("expected , or }");
+		}
+
+		@NotNull
+		private String value() {
+			char c = this.peek();
+			if (c == '"' || c == '\'') {
+				return this.quoted();
+			} else if (c == '{' || c == '[') {
+				return this.nested();
+			}
+			return this.unquoted();
+		}
+
+		@NotNull
+		private String quoted() {
+			char quote = str.charAt(pos++);
+			StringBuilder value = new StringBuilder();
+			while (pos < str.length()) {
+				char c = str.charAt(pos++);
+				if (c == quote) {
+					return value.toString();
+				} else if (c == '\\' && pos < str.length()) {
+					c = str.charAt(pos++);
+				}
+				value.append(c);
+			}
+			throw new IllegalArgumentException("unterminated string");
+		}
+
+		@NotNull
+		private String unquoted() {
+			int start = pos;
+			while (pos < str.length()) {
+				char c = str.charAt(pos);
+				if (c == ',' || c == '}' || c == ':'
+						|| Character.isWhitespace(c)) {
+					break;
+				}
+				pos++;
+			}
+			if (start == pos) {
+				throw new IllegalArgumentException("expected value");
+			}
+			return str.substring(start, pos);
+		}
+
+		/*
+		 * Nested compounds and lists are returned as their raw SNBT, with
+		 * quoted strings inside of them skipped over as a whole.
+		 */
+		@NotNull
+		private String nested() {
+			int start = pos;
+			int depth = 0;
+			while (pos < str.length()) {
+				char c = str.charAt(pos);
+				if (c == '"' || c == '\'') {
+					this.quoted();
+					continue;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+				pos++;
+				if (depth == 0) {
+					return str.substring(start, pos);
+				}
+			}
+			throw new IllegalArgumentException("unterminated compound");
+		}
+
+	}
+
+	/**
+	 * Constructs a new {@code RichTextReader}.
+	 *
+	 * @param in
+	 *            the source to read JSON from.
+	 * @throws NullPointerException
+	 *             if {@code in} is {@code null}.
+	 */
+	public RichTextReader(@NotNull Reader in) {
+		super(Objects.requireNonNull(in, "in"));
+	}
+
+	/**
+	 * Reads the next value as text.
+	 *
+	 * @return the text which was read.
+	 * @throws JsonSyntaxException
+	 *             if the next value is not valid text.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 * @see #readText(JsonReader)
+	 */
+	@NotNull
+	public RichText nextText() throws IOException {
+		return readText(this);
+	}
+
+	/**
+	 * Reads the next value as a text event.
+	 *
+	 * @return the event which was read, {@code null} if its action is unknown
+	 *         or the event is malformed.
+	 * @throws JsonSyntaxException
+	 *             if the next value is not an object.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 * @see #readEvent(JsonReader)
+	 */
+	@Nullable
+	public TextEvent nextEvent() throws IOException {
+		return readEvent(this);
+	}
+
+}
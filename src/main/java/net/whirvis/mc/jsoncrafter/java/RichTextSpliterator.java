@@ -0,0 +1,175 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A spliterator over text and all of its extras, in depth-first order.
+ * <p>
+ * Like {@link RichTextWalker}, this keeps its own stack of the text it is
+ * inside of. Each has the range of its extras which are yet to be traversed
+ * kept alongside it. When split, the shallowest text with at least two extras
+ * left has them divided in half. The first half (along with everything which
+ * comes before it) is handed off, and the second half is kept. Only the
+ * text on the stack can be divided, so when none of it has two extras left,
+ * the next text to be traversed is entered first.
+ *
+ * @see RichText#spliterator()
+ */
+final class RichTextSpliterator implements Spliterator<RichText> {
+
+	private RichText root;
+	private RichText[] texts;
+	private int[] next;
+	private int[] end;
+	private int size;
+	private long estimate;
+
+	private RichTextSpliterator(int capacity, long estimate) {
+		this.texts = new RichText[capacity];
+		this.next = new int[capacity];
+		this.end = new int[capacity];
+		this.estimate = estimate;
+	}
+
+	RichTextSpliterator(@NotNull RichText root) {
+		this(8, Long.MAX_VALUE);
+		this.root = root;
+		this.push(root, 0, root.extraCount());
+	}
+
+	private void push(@NotNull RichText text, int from, int to) {
+		if (size >= texts.length) {
+			int capacity = size * 2;
+			this.texts = Arrays.copyOf(texts, capacity);
+			this.next = Arrays.copyOf(next, capacity);
+			this.end = Arrays.copyOf(end, capacity);
+		}
+		texts[size] = text;
+		next[size] = from;
+		end[size] = to;
+		size += 1;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super RichText> action) {
+		Objects.requireNonNull(action, "action");
+		if (root != null) {
+			RichText text = this.root;
+			this.root = null;
+			action.accept(text);
+			return true;
+		}
+
+		while (size > 0) {
+			int top = size - 1;
+			if (next[top] >= end[top]) {
+				texts[top] = null;
+				size -= 1;
+				continue;
+			}
+			RichText child = texts[top].extraAt(next[top]++);
+			if (child.extraCount() > 0) {
+				this.push(child, 0, child.extraCount());
+			}
+			action.accept(child);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean hasExtrasLeft() {
+		for (int i = 0; i < size; i++) {
+			if (next[i] < end[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int findSplit() {
+		for (int i = 0; i < size; i++) {
+			if (end[i] - next[i] >= 2) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Spliterator<RichText> trySplit() {
+		int split = this.findSplit();
+		while (split < 0) {
+			/*
+			 * No text has two extras left to divide. When the next text to
+			 * be traversed is the only extra left of its parent, it can be
+			 * made the root. This lets a subtree which hangs off a chain of
+			 * single extras be divided too.
+			 */
+			if (root != null) {
+				return this.hasExtrasLeft() ? this.splitRoot() : null;
+			} else if (size <= 0) {
+				return null;
+			}
+
+			int top = size - 1;
+			if (next[top] >= end[top]) {
+				texts[top] = null;
+				size -= 1;
+				continue;
+			}
+			RichText child = texts[top].extraAt(next[top]++);
+			this.root = child;
+			this.push(child, 0, child.extraCount());
+			split = this.findSplit();
+		}
+
+		/*
+		 * The prefix is everything up to the middle extra of the text being
+		 * split. This is the root (if not yet traversed), the text being
+		 * traversed below it, and the first half of its remaining extras.
+		 */
+		int middle = next[split] + (end[split] - next[split]) / 2;
+		this.estimate >>>= 1;
+		RichTextSpliterator prefix =
+				new RichTextSpliterator(texts.length, estimate);
+		prefix.root = this.root;
+		prefix.push(texts[split], next[split], middle);
+		for (int i = split + 1; i < size; i++) {
+			prefix.push(texts[i], next[i], end[i]);
+		}
+
+		this.root = null;
+		next[split] = middle;
+		Arrays.fill(texts, split + 1, size, null);
+		this.size = split + 1;
+		return prefix;
+	}
+
+	/*
+	 * Hands off only the root, when there is nothing else to divide.
+	 */
+	@NotNull
+	private Spliterator<RichText> splitRoot() {
+		this.estimate >>>= 1;
+		RichTextSpliterator prefix = new RichTextSpliterator(8, 1L);
+		prefix.root = this.root;
+		this.root = null;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return this.estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+}
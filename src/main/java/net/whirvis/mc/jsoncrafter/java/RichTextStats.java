@@ -0,0 +1,133 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+
+/**
+ * Statistics about the JSON of rich text, as computed by
+ * {@link RichTextAnalyzer#analyze(RichText)}.
+ */
+public final class RichTextStats {
+
+	/**
+	 * The size of an event in the JSON of the text it belongs to.
+	 */
+	public static final class EventSize {
+
+		private final RichText text;
+		private final TextEvent event;
+		private final long utf8Length;
+
+		EventSize(@NotNull RichText text, @NotNull TextEvent event,
+				long utf8Length) {
+			this.text = text;
+			this.event = event;
+			this.utf8Length = utf8Length;
+		}
+
+		/**
+		 * Returns the text the event belongs to.
+		 *
+		 * @return the text the event belongs to.
+		 */
+		@NotNull
+		public RichText getText() {
+			return this.text;
+		}
+
+		/**
+		 * Returns the event.
+		 *
+		 * @return the event.
+		 */
+		@NotNull
+		public TextEvent getEvent() {
+			return this.event;
+		}
+
+		/**
+		 * Returns the number of bytes the event adds to the UTF-8 encoded
+		 * JSON of its text. This includes its name, and the separator before
+		 * it. In other words, this is how much smaller the JSON would be if
+		 * the event were removed.
+		 *
+		 * @return the size of the event in bytes.
+		 */
+		public long getUtf8Length() {
+			return this.utf8Length;
+		}
+
+		@Override
+		public String toString() {
+			return event.getType() + "=" + utf8Length;
+		}
+
+	}
+
+	private final long utf8Length;
+	private final int nodeCount;
+	private final int maxDepth;
+	private final List<EventSize> eventSizes;
+
+	RichTextStats(long utf8Length, int nodeCount, int maxDepth,
+			@NotNull List<EventSize> eventSizes) {
+		this.utf8Length = utf8Length;
+		this.nodeCount = nodeCount;
+		this.maxDepth = maxDepth;
+		this.eventSizes = Collections.unmodifiableList(eventSizes);
+	}
+
+	/**
+	 * Returns the size of the UTF-8 encoded JSON. This is the same as the
+	 * length of {@link RichText#toUtf8()}.
+	 *
+	 * @return the size of the JSON in bytes.
+	 */
+	public long getUtf8Length() {
+		return this.utf8Length;
+	}
+
+	/**
+	 * Returns the number of pieces of text. This includes the text itself,
+	 * its extras, the "with" values of translated text, and the contents of
+	 * hover events.
+	 *
+	 * @return the number of pieces of text.
+	 */
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+
+	/**
+	 * Returns how deeply text is nested. Text on its own has a depth of one.
+	 * Text nested inside of other text (e.g., as an extra) is one deeper than
+	 * the text it is nested inside of.
+	 *
+	 * @return how deeply text is nested.
+	 */
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * Returns the size of each event, in the order they are written.
+	 *
+	 * @return the size of each event.
+	 */
+	@NotNull
+	public List<EventSize> getEventSizes() {
+		return this.eventSizes;
+	}
+
+	@Override
+	public String toString() {
+		return "RichTextStats{utf8Length=" + utf8Length + ", nodeCount="
+				+ nodeCount + ", maxDepth=" + maxDepth + ", eventSizes="
+				+ eventSizes + "}";
+	}
+
+}
@@ -0,0 +1,457 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.JsonIOException;
+
+/**
+ * A compiled form of text containing {@link Placeholder placeholders}, for
+ * when the same text is sent many times with only a few values changing (such
+ * as a player name or a score).
+ * <p>
+ * When a template is compiled, the text is encoded once and split into the
+ * constant segments between its placeholders. Rendering only escapes the
+ * values given for each placeholder, and splices them in between the segments.
+ * The text itself is not encoded again. For example:
+ *
+ * <pre>
+ * TranslatedText joined = new TranslatedText("multiplayer.player.joined",
+ * 		new Placeholder("player").setColor("yellow"));
+ * RichTextTemplate template = new RichTextTemplate(joined);
+ * String json = template.render("Whirvis");
+ * </pre>
+ * <p>
+ * Templates are immutable. Changes made to the text after it was compiled are
+ * not reflected in the template. Templates can be rendered by any number of
+ * threads at once.
+ *
+ * @see Placeholder
+ */
+public final class RichTextTemplate {
+
+	/*
+	 * A placeholder is written as a single NUL character in place of its
+	 * contents. This can never appear elsewhere in the JSON, as control
+	 * characters are always escaped inside of strings.
+	 */
+	private static final char SLOT = '\0';
+
+	/**
+	 * The writer used when compiling, which placeholders write a slot to
+	 * rather than their contents.
+	 */
+	static final class TemplateWriter extends RichTextWriter {
+
+		private final List<String> slots;
+		private int depth;
+		private int nodeCount;
+		private int maxDepth;
+
+		private TemplateWriter(@NotNull StringBuilder out) {
+			super(out, false);
+			this.slots = new ArrayList<>();
+		}
+
+		@Override
+		void enterText(@NotNull RichText text) {
+			this.depth += 1;
+			this.nodeCount += 1;
+			this.maxDepth = Math.max(maxDepth, depth);
+		}
+
+		@Override
+		void exitText(@NotNull RichText text) {
+			this.depth -= 1;
+		}
+
+		void slot(@NotNull String name) throws IOException {
+			this.jsonValue(String.valueOf(SLOT));
+			slots.add(name);
+		}
+
+	}
+
+	private static final String[] REPLACEMENT_CHARS;
+	private static final String[] HTML_SAFE_REPLACEMENT_CHARS;
+
+	static {
+		/* these are the same replacements made by the GSON JSON writer */
+		REPLACEMENT_CHARS = new String[128];
+		for (int i = 0; i <= 0x1F; i++) {
+			REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+		}
+		REPLACEMENT_CHARS['"'] = "\\\"";
+		REPLACEMENT_CHARS['\\'] = "\\\\";
+		REPLACEMENT_CHARS['\t'] = "\\t";
+		REPLACEMENT_CHARS['\b'] = "\\b";
+		REPLACEMENT_CHARS['\n'] = "\\n";
+		REPLACEMENT_CHARS['\r'] = "\\r";
+		REPLACEMENT_CHARS['\f'] = "\\f";
+
+		HTML_SAFE_REPLACEMENT_CHARS = REPLACEMENT_CHARS.clone();
+		HTML_SAFE_REPLACEMENT_CHARS['<'] = "\\u003c";
+		HTML_SAFE_REPLACEMENT_CHARS['>'] = "\\u003e";
+		HTML_SAFE_REPLACEMENT_CHARS['&'] = "\\u0026";
+		HTML_SAFE_REPLACEMENT_CHARS['='] = "\\u003d";
+		HTML_SAFE_REPLACEMENT_CHARS['\''] = "\\u0027";
+	}
+
+	private final String[] segments;
+	private final byte[][] utf8Segments;
+	private final int utf8Length;
+	private final int[] slots;
+	private final List<String> placeholders;
+	private final String[] replacements;
+
+	/* kept for flight recorder events */
+	private final String textType;
+	private final int nodeCount;
+	private final int depth;
+
+	/**
+	 * Compiles a template.
+	 *
+	 * @param text
+	 *            the text to compile. Any {@link Placeholder} within it
+	 *            (including within its extras, "with" values, and hover
+	 *            events) becomes a slot in the template.
+	 * @throws NullPointerException
+	 *             if {@code text} is {@code null}.
+	 */
+	public RichTextTemplate(@NotNull RichText text) {
+		Objects.requireNonNull(text, "text");
+		StringBuilder json = new StringBuilder();
+		TemplateWriter out = new TemplateWriter(json);
+		try {
+			text.writeJson(out);
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+
+		List<String> placeholders = new ArrayList<>();
+		this.slots = new int[out.slots.size()];
+		for (int i = 0; i < slots.length; i++) {
+			String name = out.slots.get(i);
+			int index = placeholders.indexOf(name);
+			if (index < 0) {
+				index = placeholders.size();
+				placeholders.add(name);
+			}
+			slots[i] = index;
+		}
+		this.placeholders = Collections.unmodifiableList(placeholders);
+
+		this.segments = new String[slots.length + 1];
+		this.utf8Segments = new byte[segments.length][];
+		int utf8Length = 0;
+		int start = 0;
+		for (int i = 0; i < segments.length; i++) {
+			int end = i < slots.length ? json.indexOf(String.valueOf(SLOT),
+					start) : json.length();
+			segments[i] = json.substring(start, end);
+			utf8Segments[i] = segments[i].getBytes(StandardCharsets.UTF_8);
+			utf8Length += utf8Segments[i].length;
+			start = end + 1;
+		}
+		this.utf8Length = utf8Length;
+
+		this.replacements = RichText.GSON.htmlSafe()
+				? HTML_SAFE_REPLACEMENT_CHARS
+				: REPLACEMENT_CHARS;
+
+		this.textType = text.getType();
+		this.nodeCount = out.nodeCount;
+		this.depth = out.maxDepth;
+	}
+
+	/**
+	 * Returns the names of the placeholders in this template. These are in
+	 * the order they first appear, which is also the order values are
+	 * expected by {@link #render(Object...)}.
+	 *
+	 * @return the names of the placeholders in this template.
+	 */
+	@NotNull
+	public List<String> getPlaceholders() {
+		return this.placeholders;
+	}
+
+	@NotNull
+	private String[] escape(@NotNull Object[] values) {
+		String[] escaped = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			String value = String.valueOf(values[i]);
+			StringBuilder str = new StringBuilder(value.length() + 2);
+			str.append('"');
+			int last = 0;
+			for (int j = 0; j < value.length(); j++) {
+				char c = value.charAt(j);
+				String replacement = null;
+				if (c < 128) {
+					replacement = replacements[c];
+				} else if (c == '\u2028') {
+					replacement = "\\u2028";
+				} else if (c == '\u2029') {
+					replacement = "\\u2029";
+				}
+				if (replacement != null) {
+					str.append(value, last, j).append(replacement);
+					last = j + 1;
+				}
+			}
+			str.append(value, last, value.length()).append('"');
+			escaped[i] = str.toString();
+		}
+		return escaped;
+	}
+
+	@NotNull
+	private Object[] toValues(@NotNull Map<String, ?> values) {
+		Objects.requireNonNull(values, "values");
+		Object[] ordered = new Object[placeholders.size()];
+		for (int i = 0; i < ordered.length; i++) {
+			String name = placeholders.get(i);
+			if (!values.containsKey(name)) {
+				throw new IllegalArgumentException(
+						"no value for placeholder " + name);
+			}
+			ordered[i] = values.get(name);
+		}
+		return ordered;
+	}
+
+	@NotNull
+	private Object[] checkValues(@Nullable Object[] values) {
+		if (values == null) {
+			values = new Object[0];
+		}
+		if (values.length != placeholders.size()) {
+			throw new IllegalArgumentException("expected "
+					+ placeholders.size() + " values, got " + values.length);
+		}
+		return values;
+	}
+
+	private void append(@NotNull Appendable out, @NotNull String[] escaped)
+			throws IOException {
+		for (int i = 0; i < slots.length; i++) {
+			out.append(segments[i]);
+			out.append(escaped[slots[i]]);
+		}
+		out.append(segments[slots.length]);
+	}
+
+	private void commitRender(@NotNull Object event,
+			@NotNull String[] escaped) {
+		long outputSize = utf8Length;
+		for (int slot : slots) {
+			outputSize += RichTextAnalyzer.utf8Length(escaped[slot]);
+		}
+		RichTextEvents.commitRender(event, textType, nodeCount, depth,
+				slots.length, outputSize);
+	}
+
+	private void renderTo(@NotNull Appendable out, @NotNull Object[] values)
+			throws IOException {
+		Object event = RichTextEvents.beginRender();
+		String[] escaped = this.escape(values);
+		this.append(out, escaped);
+		if (event != null) {
+			this.commitRender(event, escaped);
+		}
+	}
+
+	/**
+	 * Renders this template to the given destination.
+	 *
+	 * @param out
+	 *            the destination to write JSON to.
+	 * @param values
+	 *            the values of each placeholder, in the order given by
+	 *            {@link #getPlaceholders()}. Values are converted to strings
+	 *            via {@link String#valueOf(Object)}.
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the number of
+	 *             placeholders.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public void writeJson(@NotNull Appendable out, @Nullable Object... values)
+			throws IOException {
+		Objects.requireNonNull(out, "out");
+		this.renderTo(out, this.checkValues(values));
+	}
+
+	/**
+	 * Renders this template to the given destination.
+	 *
+	 * @param out
+	 *            the destination to write JSON to.
+	 * @param values
+	 *            the values of each placeholder, by name. Values are converted
+	 *            to strings via {@link String#valueOf(Object)}.
+	 * @throws NullPointerException
+	 *             if {@code out} or {@code values} are {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if a placeholder has no value.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public void writeJson(@NotNull Appendable out,
+			@NotNull Map<String, ?> values)
+			throws IOException {
+		Objects.requireNonNull(out, "out");
+		this.renderTo(out, this.toValues(values));
+	}
+
+	@NotNull
+	private String toString(@NotNull String[] escaped) {
+		int length = 0;
+		for (String segment : segments) {
+			length += segment.length();
+		}
+		for (int slot : slots) {
+			length += escaped[slot].length();
+		}
+
+		StringBuilder json = new StringBuilder(length);
+		try {
+			this.append(json, escaped);
+		} catch (IOException e) {
+			throw new JsonIOException(e); /* should never happen */
+		}
+		return json.toString();
+	}
+
+	@NotNull
+	private String renderString(@NotNull Object[] values) {
+		Object event = RichTextEvents.beginRender();
+		String[] escaped = this.escape(values);
+		String json = this.toString(escaped);
+		if (event != null) {
+			this.commitRender(event, escaped);
+		}
+		return json;
+	}
+
+	/**
+	 * Renders this template to a string.
+	 *
+	 * @param values
+	 *            the values of each placeholder, in the order given by
+	 *            {@link #getPlaceholders()}. Values are converted to strings
+	 *            via {@link String#valueOf(Object)}.
+	 * @return the encoded JSON.
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the number of
+	 *             placeholders.
+	 */
+	@NotNull
+	public String render(@Nullable Object... values) {
+		return this.renderString(this.checkValues(values));
+	}
+
+	/**
+	 * Renders this template to a string.
+	 *
+	 * @param values
+	 *            the values of each placeholder, by name. Values are converted
+	 *            to strings via {@link String#valueOf(Object)}.
+	 * @return the encoded JSON.
+	 * @throws NullPointerException
+	 *             if {@code values} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if a placeholder has no value.
+	 */
+	@NotNull
+	public String render(@NotNull Map<String, ?> values) {
+		return this.renderString(this.toValues(values));
+	}
+
+	@NotNull
+	private byte[] toUtf8(@NotNull String[] escaped) {
+		byte[][] utf8Values = new byte[escaped.length][];
+		for (int i = 0; i < escaped.length; i++) {
+			utf8Values[i] = escaped[i].getBytes(StandardCharsets.UTF_8);
+		}
+
+		int length = utf8Length;
+		for (int slot : slots) {
+			length += utf8Values[slot].length;
+		}
+
+		byte[] utf8 = new byte[length];
+		int pos = 0;
+		for (int i = 0; i < segments.length; i++) {
+			byte[] segment = utf8Segments[i];
+			System.arraycopy(segment, 0, utf8, pos, segment.length);
+			pos += segment.length;
+			if (i < slots.length) {
+				byte[] value = utf8Values[slots[i]];
+				System.arraycopy(value, 0, utf8, pos, value.length);
+				pos += value.length;
+			}
+		}
+		return utf8;
+	}
+
+	@NotNull
+	private byte[] renderUtf8(@NotNull Object[] values) {
+		Object event = RichTextEvents.beginRender();
+		byte[] utf8 = this.toUtf8(this.escape(values));
+		if (event != null) {
+			/* the size is known exactly here, no need to count it */
+			RichTextEvents.commitRender(event, textType, nodeCount, depth,
+					slots.length, utf8.length);
+		}
+		return utf8;
+	}
+
+	/**
+	 * Renders this template as UTF-8. The constant segments of the template
+	 * are encoded ahead of time, so only the values are encoded here.
+	 *
+	 * @param values
+	 *            the values of each placeholder, in the order given by
+	 *            {@link #getPlaceholders()}. Values are converted to strings
+	 *            via {@link String#valueOf(Object)}.
+	 * @return the encoded JSON as UTF-8.
+	 * @throws IllegalArgumentException
+	 *             if the number of values does not match the number of
+	 *             placeholders.
+	 */
+	@NotNull
+	public byte[] toUtf8(@Nullable Object... values) {
+		return this.renderUtf8(this.checkValues(values));
+	}
+
+	/**
+	 * Renders this template as UTF-8. The constant segments of the template
+	 * are encoded ahead of time, so only the values are encoded here.
+	 *
+	 * @param values
+	 *            the values of each placeholder, by name. Values are converted
+	 *            to strings via {@link String#valueOf(Object)}.
+	 * @return the encoded JSON as UTF-8.
+	 * @throws NullPointerException
+	 *             if {@code values} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if a placeholder has no value.
+	 */
+	@NotNull
+	public byte[] toUtf8(@NotNull Map<String, ?> values) {
+		return this.renderUtf8(this.toValues(values));
+	}
+
+}
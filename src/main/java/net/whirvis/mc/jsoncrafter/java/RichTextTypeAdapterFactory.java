@@ -0,0 +1,93 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+
+/**
+ * Creates type adapters which stream {@link RichText} and {@link TextEvent}
+ * (along with their subclasses) to and from JSON, without first building a
+ * tree of JSON elements. This is useful when text is embedded inside of larger
+ * documents written by GSON. For example:
+ *
+ * <pre>
+ * Gson gson = new GsonBuilder()
+ * 		.registerTypeAdapterFactory(new RichTextTypeAdapterFactory())
+ * 		.create();
+ * </pre>
+ * <p>
+ * When a field is declared as a subclass (e.g., {@link PlainText}), but the
+ * JSON decodes to a different kind of text, a {@link JsonSyntaxException} is
+ * thrown.
+ *
+ * @see RichText#ADAPTER
+ * @see TextEvent#ADAPTER
+ */
+public class RichTextTypeAdapterFactory implements TypeAdapterFactory {
+
+	/**
+	 * Narrows the values read by an adapter to a subclass of its type.
+	 *
+	 * @param <T>
+	 *            the base type.
+	 */
+	private static class SubtypeAdapter<T> extends TypeAdapter<T> {
+
+		private final TypeAdapter<? super T> adapter;
+		private final Class<T> type;
+
+		private SubtypeAdapter(@NotNull TypeAdapter<? super T> adapter,
+				@NotNull Class<T> type) {
+			this.adapter = adapter;
+			this.type = type;
+		}
+
+		@Override
+		public void write(JsonWriter out, T value) throws IOException {
+			adapter.write(out, value);
+		}
+
+		@Override
+		public T read(JsonReader in) throws IOException {
+			Object value = adapter.read(in);
+			if (value != null && !type.isInstance(value)) {
+				throw new JsonSyntaxException("expected "
+						+ type.getSimpleName() + " but was "
+						+ value.getClass().getSimpleName());
+			}
+			return type.cast(value);
+		}
+
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<T> rawType = (Class<T>) type.getRawType();
+		if (rawType == RichText.class) {
+			return (TypeAdapter<T>) RichText.ADAPTER;
+		} else if (rawType == TextEvent.class) {
+			return (TypeAdapter<T>) TextEvent.ADAPTER;
+		} else if (RichText.class.isAssignableFrom(rawType)) {
+			TypeAdapter<? super T> adapter =
+					(TypeAdapter<? super T>) RichText.ADAPTER;
+			return new SubtypeAdapter<>(adapter, rawType);
+		} else if (TextEvent.class.isAssignableFrom(rawType)) {
+			TypeAdapter<? super T> adapter =
+					(TypeAdapter<? super T>) TextEvent.ADAPTER;
+			return new SubtypeAdapter<>(adapter, rawType);
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,36 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes values of a custom type found in rich text as JSON. This includes
+ * the content of text, and the parameters of {@link TranslatedText}.
+ * Encoders are registered with {@link RichTextValueEncoders}.
+ * <p>
+ * Encoders can be called from any thread, and must not keep state between
+ * calls. They should write exactly one JSON value.
+ *
+ * @param <T>
+ *            the type of value encoded.
+ * @see RichTextValueEncoders#register(Class, RichTextValueEncoder)
+ */
+@FunctionalInterface
+public interface RichTextValueEncoder<T> {
+
+	/**
+	 * Writes a value as JSON.
+	 *
+	 * @param out
+	 *            the writer to write to.
+	 * @param value
+	 *            the value to write.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	void write(@NotNull JsonWriter out, @NotNull T value) throws IOException;
+
+}
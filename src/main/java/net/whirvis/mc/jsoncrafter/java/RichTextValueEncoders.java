@@ -0,0 +1,365 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Keeps track of how values found in rich text are written as JSON. This
+ * includes the content of text, and the parameters of
+ * {@link TranslatedText}.
+ * <p>
+ * Strings, boxed primitives, {@link UUID UUIDs} and {@link RichText} are
+ * written directly, without ever asking {@link RichText#GSON}. Values of
+ * other types are written by the encoder registered for their class (or the
+ * nearest superclass or interface with one). When there is none, the type
+ * adapter of {@link RichText#GSON} is used. Either way, the encoder for a
+ * class is looked up once, and then remembered. Once the encoder for a class
+ * has been looked up, no reflection takes place when writing values of it,
+ * unless GSON falls back to its own reflective adapter. To avoid this for a
+ * custom type, register an encoder for it:
+ *
+ * <pre>
+ * RichTextValueEncoders.register(Location.class,
+ * 		(out, loc) -&gt; out.value(loc.getBlockX() + " " + loc.getBlockY()
+ * 				+ " " + loc.getBlockZ()));
+ * </pre>
+ *
+ * @see #prepare(Class)
+ */
+public final class RichTextValueEncoders {
+
+	/**
+	 * Writes values using an encoder registered by the user.
+	 */
+	private static class CustomAdapter extends TypeAdapter<Object> {
+
+		private final RichTextValueEncoder<Object> encoder;
+
+		private CustomAdapter(@NotNull RichTextValueEncoder<Object> encoder) {
+			this.encoder = encoder;
+		}
+
+		@Override
+		public void write(JsonWriter out, Object value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+			} else {
+				encoder.write(out, value);
+			}
+		}
+
+		@Override
+		public Object read(JsonReader in) {
+			throw new JsonSyntaxException("cannot read values written by a "
+					+ "RichTextValueEncoder at path " + in.getPath());
+		}
+
+	}
+
+	/**
+	 * Writes values using a type adapter of GSON. The writer is configured
+	 * the same way {@link Gson#toJson(Object, java.lang.reflect.Type,
+	 * JsonWriter)} would, so the output does not change.
+	 */
+	private static class GsonAdapter extends TypeAdapter<Object> {
+
+		private final Gson gson;
+		private final TypeAdapter<Object> adapter;
+
+		private GsonAdapter(@NotNull Gson gson,
+				@NotNull TypeAdapter<Object> adapter) {
+			this.gson = gson;
+			this.adapter = adapter;
+		}
+
+		@Override
+		public void write(JsonWriter out, Object value) throws IOException {
+			boolean lenient = out.isLenient();
+			boolean htmlSafe = out.isHtmlSafe();
+			boolean serializeNulls = out.getSerializeNulls();
+			out.setLenient(true);
+			out.setHtmlSafe(gson.htmlSafe());
+			out.setSerializeNulls(gson.serializeNulls());
+			try {
+				adapter.write(out, value);
+			} finally {
+				out.setLenient(lenient);
+				out.setHtmlSafe(htmlSafe);
+				out.setSerializeNulls(serializeNulls);
+			}
+		}
+
+		@Override
+		public Object read(JsonReader in) throws IOException {
+			return adapter.read(in);
+		}
+
+	}
+
+	/**
+	 * The adapter looked up for a class, along with what it was looked up
+	 * with. It is only used while it is still the adapter which would be
+	 * looked up, i.e., while {@link RichText#GSON} has not been replaced and
+	 * no encoder has been registered (or unregistered) since.
+	 */
+	private static class Resolved {
+
+		private final Gson gson;
+		private final int registrations;
+		private final TypeAdapter<Object> adapter;
+
+		private Resolved(@NotNull Gson gson, int registrations,
+				@NotNull TypeAdapter<Object> adapter) {
+			this.gson = gson;
+			this.registrations = registrations;
+			this.adapter = adapter;
+		}
+
+	}
+
+	/**
+	 * Holds the adapter last looked up for a class.
+	 */
+	private static class Resolution {
+
+		private volatile Resolved resolved;
+
+	}
+
+	private static final Map<Class<?>, RichTextValueEncoder<?>> ENCODERS =
+			new ConcurrentHashMap<>();
+
+	/*
+	 * Adapters are kept alongside their class, rather than in a map, so they
+	 * do not keep classes from being unloaded (e.g., those of a plugin which
+	 * has been disabled). Since they cannot all be cleared at once, each is
+	 * checked to still be current when it is used instead.
+	 */
+	private static final ClassValue<Resolution> RESOLVED =
+			new ClassValue<Resolution>() {
+				@Override
+				protected Resolution computeValue(Class<?> type) {
+					return new Resolution();
+				}
+			};
+	private static final AtomicInteger REGISTRATIONS = new AtomicInteger();
+
+	private RichTextValueEncoders() {
+		/* static class */
+	}
+
+	/**
+	 * Returns if values of a type are always written directly, without an
+	 * encoder.
+	 *
+	 * @param type
+	 *            the type to check.
+	 * @return {@code true} if {@code type} is written directly,
+	 *         {@code false} otherwise.
+	 */
+	public static boolean isBuiltIn(@NotNull Class<?> type) {
+		return type == String.class || type == Integer.class
+				|| type == Long.class || type == Short.class
+				|| type == Byte.class || type == Double.class
+				|| type == Float.class || type == Boolean.class
+				|| type == Character.class || type == UUID.class
+				|| RichText.class.isAssignableFrom(type);
+	}
+
+	/**
+	 * Registers an encoder for a type. It is also used for subclasses of the
+	 * type, unless they have an encoder of their own.
+	 *
+	 * @param <T>
+	 *            the type of value encoded.
+	 * @param type
+	 *            the type to register the encoder for.
+	 * @param encoder
+	 *            the encoder.
+	 * @throws NullPointerException
+	 *             if {@code type} or {@code encoder} are {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code type} is always written directly.
+	 * @see #isBuiltIn(Class)
+	 */
+	public static <T> void register(@NotNull Class<T> type,
+			@NotNull RichTextValueEncoder<? super T> encoder) {
+		Objects.requireNonNull(type, "type");
+		Objects.requireNonNull(encoder, "encoder");
+		if (isBuiltIn(type)) {
+			throw new IllegalArgumentException(
+					type.getName() + " is written directly");
+		}
+		ENCODERS.put(type, encoder);
+		REGISTRATIONS.incrementAndGet();
+	}
+
+	/**
+	 * Unregisters the encoder for a type. Values of the type will then be
+	 * written by the encoder of its nearest superclass or interface, or by
+	 * {@link RichText#GSON}.
+	 *
+	 * @param type
+	 *            the type whose encoder to unregister.
+	 */
+	public static void unregister(@Nullable Class<?> type) {
+		if (type != null && ENCODERS.remove(type) != null) {
+			REGISTRATIONS.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Looks up the encoder for a type ahead of time, so the first value of
+	 * it written does not have to.
+	 *
+	 * @param type
+	 *            the type whose encoder to look up.
+	 * @throws NullPointerException
+	 *             if {@code type} is {@code null}.
+	 */
+	public static void prepare(@NotNull Class<?> type) {
+		Objects.requireNonNull(type, "type");
+		if (!isBuiltIn(type)) {
+			getAdapter(type);
+		}
+	}
+
+	@Nullable
+	private static RichTextValueEncoder<?> findEncoder(
+			@NotNull Class<?> type) {
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			RichTextValueEncoder<?> encoder = ENCODERS.get(c);
+			if (encoder != null) {
+				return encoder;
+			}
+			for (Class<?> i : c.getInterfaces()) {
+				encoder = findEncoder(i);
+				if (encoder != null) {
+					return encoder;
+				}
+			}
+		}
+		return null;
+	}
+
+	@NotNull
+	@SuppressWarnings("unchecked")
+	private static TypeAdapter<Object> getAdapter(@NotNull Class<?> type) {
+		/*
+		 * The registrations are counted before the encoders are searched.
+		 * If an encoder is registered during the search, the adapter found is
+		 * then already out of date, and is looked up again on next use.
+		 */
+		Gson gson = RichText.GSON;
+		int registrations = REGISTRATIONS.get();
+		Resolution resolution = RESOLVED.get(type);
+		Resolved resolved = resolution.resolved;
+		if (resolved != null && resolved.gson == gson
+				&& resolved.registrations == registrations) {
+			return resolved.adapter;
+		}
+
+		TypeAdapter<Object> adapter;
+		RichTextValueEncoder<?> encoder = findEncoder(type);
+		if (encoder != null) {
+			adapter = new CustomAdapter((RichTextValueEncoder<Object>) encoder);
+		} else {
+			adapter = new GsonAdapter(gson,
+					(TypeAdapter<Object>) gson.getAdapter(type));
+		}
+		resolution.resolved = new Resolved(gson, registrations, adapter);
+		return adapter;
+	}
+
+	private static void checkFinite(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException(
+					value + " is not a valid JSON number");
+		}
+	}
+
+	/**
+	 * Writes a value as JSON.
+	 *
+	 * @param out
+	 *            the writer to write to.
+	 * @param value
+	 *            the value to write, may be {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	static void write(@NotNull JsonWriter out, @Nullable Object value)
+			throws IOException {
+		if (value == null) {
+			out.nullValue();
+		} else if (value instanceof String) {
+			out.value((String) value);
+		} else if (value instanceof RichText) {
+			((RichText) value).writeJson(out);
+		} else if (value instanceof Integer || value instanceof Long
+				|| value instanceof Short || value instanceof Byte) {
+			out.value(((Number) value).longValue());
+		} else if (value instanceof Double) {
+			out.value(((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			out.value((Float) value); /* keep float precision */
+		} else if (value instanceof Boolean) {
+			out.value(((Boolean) value).booleanValue());
+		} else if (value instanceof Character) {
+			out.value(value.toString());
+		} else if (value instanceof UUID) {
+			out.value(value.toString());
+		} else if (value instanceof Placeholder.Slot) {
+			((Placeholder.Slot) value).write(out);
+		} else {
+			getAdapter(value.getClass()).write(out, value);
+		}
+	}
+
+	/**
+	 * Converts a value to a JSON element.
+	 *
+	 * @param value
+	 *            the value to convert, may be {@code null}.
+	 * @return the value as a JSON element.
+	 */
+	@NotNull
+	static JsonElement toJsonTree(@Nullable Object value) {
+		if (value == null) {
+			return JsonNull.INSTANCE;
+		} else if (value instanceof String) {
+			return new JsonPrimitive((String) value);
+		} else if (value instanceof RichText) {
+			return RichText.ADAPTER.toJsonTree((RichText) value);
+		} else if (value instanceof Integer || value instanceof Long
+				|| value instanceof Short || value instanceof Byte) {
+			return new JsonPrimitive((Number) value);
+		} else if (value instanceof Double || value instanceof Float) {
+			checkFinite(((Number) value).doubleValue());
+			return new JsonPrimitive((Number) value);
+		} else if (value instanceof Boolean) {
+			return new JsonPrimitive((Boolean) value);
+		} else if (value instanceof Character || value instanceof UUID
+				|| value instanceof Placeholder.Slot) {
+			return new JsonPrimitive(value.toString());
+		}
+		return getAdapter(value.getClass()).toJsonTree(value);
+	}
+
+}
@@ -0,0 +1,75 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+
+/**
+ * Visits text, its extras, and its events depth-first. Text is visited
+ * first, then its events (along with the text of any tooltip they show),
+ * then its extras. For example, to collect the commands run by clicking on
+ * text:
+ *
+ * <pre>
+ * List&lt;String&gt; commands = new ArrayList&lt;&gt;();
+ * text.accept(new RichTextVisitor() {
+ * 	&#64;Override
+ * 	public boolean visitEvent(RichText text, TextEvent event) {
+ * 		if (event instanceof ClickEvent
+ * 				&amp;&amp; ClickEvent.RUN_COMMAND.equals(event.getAction())) {
+ * 			commands.add(((ClickEvent) event).getText());
+ * 		}
+ * 		return false;
+ * 	}
+ * });
+ * </pre>
+ * <p>
+ * All methods do nothing by default, and visit everything. Nothing is
+ * allocated while visiting, as the extras of text are never copied.
+ *
+ * @see RichText#accept(RichTextVisitor)
+ * @see RichTextWalker#walk(RichText, RichTextVisitor)
+ */
+public interface RichTextVisitor {
+
+	/**
+	 * Called when text is visited.
+	 *
+	 * @param text
+	 *            the text being visited.
+	 * @return {@code true} if the events and extras of {@code text} should be
+	 *         visited, {@code false} to skip them. When skipped,
+	 *         {@link #leaveText(RichText)} is not called for {@code text}.
+	 */
+	default boolean visitText(@NotNull RichText text) {
+		return true;
+	}
+
+	/**
+	 * Called when an event of text is visited.
+	 *
+	 * @param text
+	 *            the text the event belongs to.
+	 * @param event
+	 *            the event being visited.
+	 * @return {@code true} if the text shown by {@code event} should be
+	 *         visited (when it is a {@link HoverEvent} which shows text),
+	 *         {@code false} to skip it.
+	 */
+	default boolean visitEvent(@NotNull RichText text,
+			@NotNull TextEvent event) {
+		return true;
+	}
+
+	/**
+	 * Called after the events and extras of text have been visited.
+	 *
+	 * @param text
+	 *            the text being left.
+	 */
+	default void leaveText(@NotNull RichText text) {
+		/* optional override */
+	}
+
+}
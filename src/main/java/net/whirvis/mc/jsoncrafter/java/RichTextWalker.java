@@ -0,0 +1,259 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+
+/**
+ * Walks the tree formed by text and its extras depth-first, without
+ * recursion. The walker keeps its own stack of the text it is inside of, so
+ * the Java stack does not grow with how deeply extras are nested. Text nested
+ * in other ways (e.g., as the content of another text) is not walked.
+ * <p>
+ * A {@link RichTextVisitor} can also be given to a walker, which visits the
+ * events of text (and the text of their tooltips) as well.
+ * <p>
+ * A walker can be reused, which avoids having to grow its stack again. It
+ * can also be reentered, e.g., by a visitor which walks other text while it
+ * is being walked. However, a walker must not be used by multiple threads at
+ * once.
+ *
+ * @see #walk(RichText, Visitor)
+ */
+public final class RichTextWalker {
+
+	/**
+	 * Visits text as it is walked.
+	 *
+	 * @param <X>
+	 *            the type of exception thrown by the visitor.
+	 */
+	public interface Visitor<X extends Exception> {
+
+		/**
+		 * Called when text is entered, before its extras are walked.
+		 *
+		 * @param text
+		 *            the text being entered.
+		 * @return {@code true} if the extras of {@code text} should be
+		 *         walked, {@code false} to skip them. When skipped,
+		 *         {@link #exitText(RichText)} is not called for
+		 *         {@code text}.
+		 * @throws X
+		 *             if the visitor fails.
+		 */
+		boolean enterText(@NotNull RichText text) throws X;
+
+		/**
+		 * Called after the extras of text have been walked.
+		 *
+		 * @param text
+		 *            the text being exited.
+		 * @throws X
+		 *             if the visitor fails.
+		 */
+		void exitText(@NotNull RichText text) throws X;
+
+	}
+
+	/**
+	 * Walks text on behalf of a {@link RichTextVisitor}.
+	 */
+	private final class VisitorWalk implements Visitor<RuntimeException> {
+
+		private RichTextVisitor visitor;
+
+		@Override
+		public boolean enterText(@NotNull RichText text) {
+			if (!visitor.visitText(text)) {
+				return false;
+			}
+			text.visitEvents(RichTextWalker.this, visitor);
+			return true;
+		}
+
+		@Override
+		public void exitText(@NotNull RichText text) {
+			visitor.leaveText(text);
+		}
+
+	}
+
+	private static final RichText[] NO_TEXTS = new RichText[0];
+	private static final int[] NO_INDICES = new int[0];
+
+	private static final ThreadLocal<RichTextWalker> WALKERS =
+			ThreadLocal.withInitial(RichTextWalker::new);
+
+	/**
+	 * Returns the walker of the current thread. Since walkers are reentrant,
+	 * this can be used by anything which walks text on the current thread.
+	 *
+	 * @return the walker of the current thread.
+	 */
+	@NotNull
+	static RichTextWalker forThread() {
+		return WALKERS.get();
+	}
+
+	/* created on first use, as most walks do not visit events */
+	private VisitorWalk visitorWalk;
+
+	/*
+	 * The text currently being walked, from the root down. Each has the index
+	 * of its next extra to walk kept alongside it. Reentrant walks use the
+	 * part of the stack above the walk they were started from.
+	 */
+	private RichText[] texts = NO_TEXTS;
+	private int[] indices = NO_INDICES;
+	private int size;
+
+	private void push(@NotNull RichText text) {
+		if (size >= texts.length) {
+			int capacity = Math.max(size * 2, 16);
+			this.texts = Arrays.copyOf(texts, capacity);
+			this.indices = Arrays.copyOf(indices, capacity);
+		}
+		texts[size] = text;
+		indices[size] = 0;
+		size += 1;
+	}
+
+	/**
+	 * Walks text and all of its extras depth-first.
+	 *
+	 * @param <X>
+	 *            the type of exception thrown by the visitor.
+	 * @param root
+	 *            the text to walk.
+	 * @param visitor
+	 *            the visitor to notify.
+	 * @throws NullPointerException
+	 *             if {@code root} or {@code visitor} are {@code null}.
+	 * @throws X
+	 *             if the visitor fails.
+	 */
+	public <X extends Exception> void walk(@NotNull RichText root,
+			@NotNull Visitor<X> visitor) throws X {
+		Objects.requireNonNull(root, "root");
+		Objects.requireNonNull(visitor, "visitor");
+		if (!visitor.enterText(root)) {
+			return;
+		} else if (root.extraCount() <= 0) {
+			visitor.exitText(root);
+			return;
+		}
+
+		int bottom = this.size;
+		try {
+			this.push(root);
+			while (size > bottom) {
+				int top = size - 1;
+				RichText parent = texts[top];
+				int index = indices[top];
+				if (index >= parent.extraCount()) {
+					texts[top] = null;
+					size -= 1;
+					visitor.exitText(parent);
+					continue;
+				}
+
+				indices[top] = index + 1;
+				RichText child = parent.extraAt(index);
+				if (!visitor.enterText(child)) {
+					continue;
+				} else if (child.extraCount() <= 0) {
+					visitor.exitText(child);
+				} else {
+					this.push(child);
+				}
+			}
+		} finally {
+			/* the walk may have been cut short */
+			Arrays.fill(texts, bottom, size, null);
+			this.size = bottom;
+		}
+	}
+
+	/*
+	 * Counts text and all of its extras. This is the same as walking them
+	 * with a visitor which counts what it enters, but without having to
+	 * create one.
+	 */
+	int count(@NotNull RichText root) {
+		int count = 1;
+		if (root.extraCount() <= 0) {
+			return count;
+		}
+
+		int bottom = this.size;
+		try {
+			this.push(root);
+			while (size > bottom) {
+				int top = size - 1;
+				RichText parent = texts[top];
+				int index = indices[top];
+				if (index >= parent.extraCount()) {
+					texts[top] = null;
+					size -= 1;
+					continue;
+				}
+
+				indices[top] = index + 1;
+				RichText child = parent.extraAt(index);
+				count += 1;
+				if (child.extraCount() > 0) {
+					this.push(child);
+				}
+			}
+		} finally {
+			Arrays.fill(texts, bottom, size, null);
+			this.size = bottom;
+		}
+		return count;
+	}
+
+	/**
+	 * Visits text, its events and its extras depth-first.
+	 *
+	 * @param root
+	 *            the text to visit.
+	 * @param visitor
+	 *            the visitor to notify.
+	 * @throws NullPointerException
+	 *             if {@code root} or {@code visitor} are {@code null}.
+	 * @see RichText#accept(RichTextVisitor)
+	 */
+	public void walk(@NotNull RichText root,
+			@NotNull RichTextVisitor visitor) {
+		Objects.requireNonNull(root, "root");
+		Objects.requireNonNull(visitor, "visitor");
+		if (visitorWalk == null) {
+			this.visitorWalk = new VisitorWalk();
+		}
+		RichTextVisitor previous = visitorWalk.visitor;
+		visitorWalk.visitor = visitor;
+		try {
+			this.walk(root, visitorWalk);
+		} finally {
+			visitorWalk.visitor = previous;
+		}
+	}
+
+	void visitEvent(@NotNull RichText text, @NotNull TextEvent event,
+			@NotNull RichTextVisitor visitor) {
+		if (!visitor.visitEvent(text, event)
+				|| !(event instanceof HoverEvent)) {
+			return;
+		}
+		HoverEvent hover = (HoverEvent) event;
+		for (int i = 0; i < hover.getTextCount(); i++) {
+			this.walk(hover.getText(i), visitor);
+		}
+	}
+
+}
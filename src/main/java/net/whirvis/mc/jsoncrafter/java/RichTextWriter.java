@@ -0,0 +1,208 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
+
+/**
+ * A JSON writer which encodes rich text directly to its destination, without
+ * first building a tree of JSON elements. The output of this writer is
+ * identical to that of {@link RichText#GSON}.
+ * <p>
+ * Rich text is written to this writer via {@link RichText#writeJson(JsonWriter)}.
+ * For example:
+ *
+ * <pre>
+ * RichTextWriter out = new RichTextWriter(System.out);
+ * text.writeJson(out);
+ * out.flush();
+ * </pre>
+ */
+public class RichTextWriter extends JsonWriter {
+
+	/**
+	 * Adapts an {@code Appendable} into a {@code Writer}, so it can be given to
+	 * a {@code JsonWriter}.
+	 */
+	private static class AppendableWriter extends Writer {
+
+		private final Appendable out;
+
+		private AppendableWriter(@NotNull Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			out.append((char) c);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			for (int i = off; i < off + len; i++) {
+				out.append(cbuf[i]);
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			out.append(str, off, off + len);
+		}
+
+		@Override
+		public Writer append(CharSequence csq) throws IOException {
+			out.append(csq);
+			return this;
+		}
+
+		@Override
+		public Writer append(CharSequence csq, int start, int end)
+				throws IOException {
+			out.append(csq, start, end);
+			return this;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (out instanceof Flushable) {
+				((Flushable) out).flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out instanceof Closeable) {
+				((Closeable) out).close();
+			}
+		}
+
+	}
+
+	/**
+	 * Writes the members of a JSON object to a JSON writer. This is used to
+	 * bridge components which still encode themselves to a JSON object into a
+	 * streaming writer.
+	 *
+	 * @param out
+	 *            the writer to write to. This must currently be inside of an
+	 *            object.
+	 * @param json
+	 *            the JSON object whose members to write.
+	 * @throws NullPointerException
+	 *             if {@code out} or {@code json} are {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public static void writeMembers(@NotNull JsonWriter out,
+			@NotNull JsonObject json) throws IOException {
+		Objects.requireNonNull(out, "out");
+		Objects.requireNonNull(json, "json");
+		for (Map.Entry<String, JsonElement> member : json.entrySet()) {
+			out.name(member.getKey());
+			RichText.GSON.toJson(member.getValue(), out);
+		}
+	}
+
+	/*
+	 * When set, text which has its JSON cached will have it written as is.
+	 * This is only done for writers created internally, as the formatting of
+	 * writers given to us (e.g., their indentation) cannot be known.
+	 */
+	final boolean cached;
+	private boolean compact;
+
+	RichTextWriter(@NotNull Appendable out, boolean cached) {
+		super(out instanceof Writer ? (Writer) out
+				: new AppendableWriter(Objects.requireNonNull(out, "out")));
+		this.setHtmlSafe(RichText.GSON.htmlSafe());
+		this.setSerializeNulls(RichText.GSON.serializeNulls());
+		this.cached = cached;
+	}
+
+	/**
+	 * Constructs a new {@code RichTextWriter}.
+	 *
+	 * @param out
+	 *            the destination to write JSON to.
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 */
+	public RichTextWriter(@NotNull Appendable out) {
+		this(out, false);
+	}
+
+	/**
+	 * Sets if text should be written in its most compact form. When enabled,
+	 * unstyled plain text is written using the shorthands accepted by the
+	 * game. That is, as a bare string when it has no extras, or as an array
+	 * of its content followed by its extras otherwise.
+	 * <p>
+	 * This is disabled by default, as the output of this writer would no
+	 * longer be identical to that of {@link RichText#GSON}.
+	 *
+	 * @param compact
+	 *            {@code true} if text should be written in its most compact
+	 *            form, {@code false} otherwise.
+	 * @see RichTextOptimizer#minify(RichText)
+	 */
+	public final void setCompact(boolean compact) {
+		this.compact = compact;
+	}
+
+	/**
+	 * Returns if text is written in its most compact form.
+	 *
+	 * @return {@code true} if text is written in its most compact form,
+	 *         {@code false} otherwise.
+	 * @see #setCompact(boolean)
+	 */
+	public final boolean isCompact() {
+		return this.compact;
+	}
+
+	/*
+	 * Cached JSON is never written by compact writers, since it was not
+	 * written in compact form.
+	 */
+	boolean splicesCached() {
+		return cached && !compact;
+	}
+
+	/*
+	 * The methods below are called by text as it writes itself, so that
+	 * subclasses can keep track of where they are in the tree. When text has
+	 * its cached JSON written instead, only splicedText() is called.
+	 */
+
+	void splicedText(@NotNull RichText text) throws IOException {
+		/* optional override */
+	}
+
+	void enterText(@NotNull RichText text) throws IOException {
+		/* optional override */
+	}
+
+	void exitText(@NotNull RichText text) throws IOException {
+		/* optional override */
+	}
+
+	void enterEvent(@NotNull TextEvent event) throws IOException {
+		/* optional override */
+	}
+
+	void exitEvent(@NotNull TextEvent event) throws IOException {
+		/* optional override */
+	}
+
+}
@@ -0,0 +1,410 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The formatting of rich text, such as its color and whether or not it is
+ * bold. Styles are immutable, and can be shared freely between texts.
+ * <p>
+ * All instances of {@code Style} are interned. That is, there is only ever one
+ * instance for each distinct style (which has not been garbage collected). As
+ * such, two styles are equal if and only if they are the same instance.
+ * <p>
+ * Styles are obtained by starting with {@link #EMPTY}, and then calling the
+ * appropriate {@code with} methods. For example:
+ *
+ * <pre>
+ * Style style = Style.EMPTY.withColor("red").withBold(true);
+ * </pre>
+ *
+ * @see RichText#setStyle(Style)
+ */
+public final class Style {
+
+	/*
+	 * Each of the flags (bold, italic, etc.) can be true, false, or absent.
+	 * As such, they take up two bits each in the packed flags of a style.
+	 */
+	private static final int FLAG_ABSENT = 0b00;
+	private static final int FLAG_FALSE = 0b01;
+	private static final int FLAG_TRUE = 0b10;
+	private static final int FLAG_MASK = 0b11;
+
+	private static final int BOLD = 0;
+	private static final int ITALIC = 2;
+	private static final int STRIKETHROUGH = 4;
+	private static final int UNDERLINED = 6;
+	private static final int OBFUSCATED = 8;
+
+	/**
+	 * A weak reference to an interned style. Since the style is what this
+	 * is looked up by, it is kept alongside a copy of the style to be its
+	 * key. Otherwise, the key would keep the style alive.
+	 */
+	private static final class Interned extends WeakReference<Style> {
+
+		private final Style key;
+
+		private Interned(@NotNull Style style) {
+			super(style, COLLECTED);
+			this.key = new Style(style.color, style.font, style.flags,
+					style.insertion);
+		}
+
+	}
+
+	/*
+	 * Styles are held weakly so that those no longer used by any text (e.g.,
+	 * with a one-off insertion) can be garbage collected. Their entries are
+	 * removed the next time a style is interned. Styles are created by every
+	 * thread which builds text, so this must not lock when a style is looked
+	 * up, only when one is added.
+	 */
+	private static final ConcurrentMap<Style, Interned> INTERNED =
+			new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Style> COLLECTED =
+			new ReferenceQueue<>();
+
+	/**
+	 * A style with no parameters present. When encoded, text with this style
+	 * will have no formatting present in its JSON.
+	 */
+	public static final Style EMPTY = intern(new Style(null, null, 0, null));
+
+	@NotNull
+	private static Style intern(@NotNull Style style) {
+		Object collected;
+		while ((collected = COLLECTED.poll()) != null) {
+			Interned ref = (Interned) collected;
+			INTERNED.remove(ref.key, ref);
+		}
+
+		while (true) {
+			Interned ref = INTERNED.get(style);
+			Style interned = ref != null ? ref.get() : null;
+			if (interned != null) {
+				return interned;
+			}
+
+			/* the style was never interned, or has since been collected */
+			Interned created = new Interned(style);
+			if (ref == null ? INTERNED.putIfAbsent(created.key, created) == null
+					: INTERNED.replace(created.key, ref, created)) {
+				return style;
+			}
+		}
+	}
+
+	@Nullable
+	private static String intern(@Nullable String str) {
+		return str != null ? str.intern() : null;
+	}
+
+	private final String color;
+	private final String font;
+	private final int flags;
+	private final String insertion;
+	private final int hash;
+
+	private Style(@Nullable String color, @Nullable String font, int flags,
+			@Nullable String insertion) {
+		this.color = color;
+		this.font = font;
+		this.flags = flags;
+		this.insertion = insertion;
+
+		int hash = Objects.hashCode(color);
+		hash = 31 * hash + Objects.hashCode(font);
+		hash = 31 * hash + flags;
+		hash = 31 * hash + Objects.hashCode(insertion);
+		this.hash = hash;
+	}
+
+	@Nullable
+	private Boolean getFlag(int shift) {
+		switch ((flags >>> shift) & FLAG_MASK) {
+			case FLAG_TRUE:
+				return Boolean.TRUE;
+			case FLAG_FALSE:
+				return Boolean.FALSE;
+			default:
+				return null;
+		}
+	}
+
+	@NotNull
+	private Style withFlag(int shift, @Nullable Boolean value) {
+		int bits = FLAG_ABSENT;
+		if (value != null) {
+			bits = value ? FLAG_TRUE : FLAG_FALSE;
+		}
+		int flags = (this.flags & ~(FLAG_MASK << shift)) | (bits << shift);
+		if (flags == this.flags) {
+			return this;
+		}
+		return intern(new Style(color, font, flags, insertion));
+	}
+
+	/**
+	 * Returns if this style has no parameters present.
+	 *
+	 * @return {@code true} if this style has no parameters present,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isEmpty() {
+		return this == EMPTY;
+	}
+
+	/**
+	 * Returns the text color.
+	 *
+	 * @return the text color, {@code null} if absent.
+	 */
+	@Nullable
+	public String getColor() {
+		return this.color;
+	}
+
+	/**
+	 * Returns a style with the given text color.
+	 *
+	 * @param color
+	 *            the color name. May be {@code null} to have the parameter left
+	 *            absent from the encoded JSON.
+	 * @return a style with the given text color.
+	 */
+	@NotNull
+	public Style withColor(@Nullable String color) {
+		if (Objects.equals(color, this.color)) {
+			return this;
+		}
+		return intern(new Style(intern(color), font, flags, insertion));
+	}
+
+	/**
+	 * Returns the font text is rendered with.
+	 *
+	 * @return the font text is rendered with, {@code null} if absent.
+	 */
+	@Nullable
+	public String getFont() {
+		return this.font;
+	}
+
+	/**
+	 * Returns a style with the given font.
+	 *
+	 * @param font
+	 *            the font to render text with. May be {@code null} to have the
+	 *            parameter left absent from the encoded JSON.
+	 * @return a style with the given font.
+	 */
+	@NotNull
+	public Style withFont(@Nullable String font) {
+		if (Objects.equals(font, this.font)) {
+			return this;
+		}
+		return intern(new Style(color, intern(font), flags, insertion));
+	}
+
+	/**
+	 * Returns if text is bold.
+	 *
+	 * @return if text is bold, {@code null} if absent.
+	 */
+	@Nullable
+	public Boolean getBold() {
+		return this.getFlag(BOLD);
+	}
+
+	/**
+	 * Returns a style with text set to bold or not.
+	 *
+	 * @param bold
+	 *            {@code true} if text should be bold, {@code false} otherwise.
+	 *            May be {@code null} to have the parameter left absent from the
+	 *            encoded JSON.
+	 * @return a style with text set to bold or not.
+	 */
+	@NotNull
+	public Style withBold(@Nullable Boolean bold) {
+		return this.withFlag(BOLD, bold);
+	}
+
+	/**
+	 * Returns if text is italic.
+	 *
+	 * @return if text is italic, {@code null} if absent.
+	 */
+	@Nullable
+	public Boolean getItalic() {
+		return this.getFlag(ITALIC);
+	}
+
+	/**
+	 * Returns a style with text set to italic or not.
+	 *
+	 * @param italic
+	 *            {@code true} if text should be italic, {@code false}
+	 *            otherwise. May be {@code null} to have the parameter left
+	 *            absent from the encoded JSON.
+	 * @return a style with text set to italic or not.
+	 */
+	@NotNull
+	public Style withItalic(@Nullable Boolean italic) {
+		return this.withFlag(ITALIC, italic);
+	}
+
+	/**
+	 * Returns if text is striked through.
+	 *
+	 * @return if text is striked through, {@code null} if absent.
+	 */
+	@Nullable
+	public Boolean getStrikethrough() {
+		return this.getFlag(STRIKETHROUGH);
+	}
+
+	/**
+	 * Returns a style with text set to striked through or not.
+	 *
+	 * @param strikethrough
+	 *            {@code true} if text should be striked through, {@code false}
+	 *            otherwise. May be {@code null} to have the parameter left
+	 *            absent from the encoded JSON.
+	 * @return a style with text set to striked through or not.
+	 */
+	@NotNull
+	public Style withStrikethrough(@Nullable Boolean strikethrough) {
+		return this.withFlag(STRIKETHROUGH, strikethrough);
+	}
+
+	/**
+	 * Returns if text is underlined.
+	 *
+	 * @return if text is underlined, {@code null} if absent.
+	 */
+	@Nullable
+	public Boolean getUnderlined() {
+		return this.getFlag(UNDERLINED);
+	}
+
+	/**
+	 * Returns a style with text set to underlined or not.
+	 *
+	 * @param underlined
+	 *            {@code true} if text should be underlined, {@code false}
+	 *            otherwise. May be {@code null} to have the parameter left
+	 *            absent from the encoded JSON.
+	 * @return a style with text set to underlined or not.
+	 */
+	@NotNull
+	public Style withUnderlined(@Nullable Boolean underlined) {
+		return this.withFlag(UNDERLINED, underlined);
+	}
+
+	/**
+	 * Returns if text is obfuscated.
+	 *
+	 * @return if text is obfuscated, {@code null} if absent.
+	 */
+	@Nullable
+	public Boolean getObfuscated() {
+		return this.getFlag(OBFUSCATED);
+	}
+
+	/**
+	 * Returns a style with text set to obfuscated or not.
+	 *
+	 * @param obfuscated
+	 *            {@code true} if text should be obfuscated, {@code false}
+	 *            otherwise. May be {@code null} to have the parameter left
+	 *            absent from the encoded JSON.
+	 * @return a style with text set to obfuscated or not.
+	 */
+	@NotNull
+	public Style withObfuscated(@Nullable Boolean obfuscated) {
+		return this.withFlag(OBFUSCATED, obfuscated);
+	}
+
+	/**
+	 * Returns the text that will be inserted into the player's chatbar when
+	 * they shift click text.
+	 *
+	 * @return the text to insert when shift clicked, {@code null} if absent.
+	 */
+	@Nullable
+	public String getInsertion() {
+		return this.insertion;
+	}
+
+	/**
+	 * Returns a style with the given text to insert into the player's chatbar
+	 * when they shift click text.
+	 *
+	 * @param insertion
+	 *            the text to insert when shift clicked. May be {@code null} to
+	 *            have the parameter left absent from the encoded JSON.
+	 * @return a style with the given text to insert.
+	 */
+	@NotNull
+	public Style withInsertion(@Nullable String insertion) {
+		if (Objects.equals(insertion, this.insertion)) {
+			return this;
+		}
+		return intern(new Style(color, font, flags, insertion));
+	}
+
+	/**
+	 * Returns this style with any absent parameters taken from the given
+	 * style. This is how text inherits the style of its parent.
+	 *
+	 * @param parent
+	 *            the style to inherit absent parameters from.
+	 * @return this style with absent parameters inherited from
+	 *         {@code parent}.
+	 */
+	@NotNull
+	Style inheritFrom(@NotNull Style parent) {
+		if (parent.isEmpty()) {
+			return this;
+		}
+		int flags = parent.flags;
+		for (int shift = BOLD; shift <= OBFUSCATED; shift += 2) {
+			int bits = (this.flags >>> shift) & FLAG_MASK;
+			if (bits != FLAG_ABSENT) {
+				flags = (flags & ~(FLAG_MASK << shift)) | (bits << shift);
+			}
+		}
+		return intern(new Style(RichText.nullFallback(color, parent.color),
+				RichText.nullFallback(font, parent.font), flags,
+				RichText.nullFallback(insertion, parent.insertion)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		} else if (!(obj instanceof Style)) {
+			return false;
+		}
+		Style style = (Style) obj;
+		return hash == style.hash && flags == style.flags
+				&& Objects.equals(color, style.color)
+				&& Objects.equals(font, style.font)
+				&& Objects.equals(insertion, style.insertion);
+	}
+
+}
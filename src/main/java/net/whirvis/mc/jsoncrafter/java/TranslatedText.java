@@ -1,10 +1,14 @@
 package net.whirvis.mc.jsoncrafter.java;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Displays a translated piece of text from the currently selected language.
@@ -64,6 +68,32 @@ public class TranslatedText extends RichText {
 		this.setWith(with);
 	}
 
+	private void updateDependencies(@Nullable Object[] with, boolean add) {
+		if (with == null) {
+			return;
+		}
+		for (Object value : with) {
+			if (!(value instanceof RichText)) {
+				continue;
+			} else if (add) {
+				((RichText) value).addDependent(this);
+			} else {
+				((RichText) value).removeDependent(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the parameters this text is formatted with.
+	 * 
+	 * @return a copy of the parameters this text is formatted with, an empty
+	 *         array if there are none.
+	 */
+	@NotNull
+	public Object[] getWith() {
+		return with != null ? with.clone() : new Object[0];
+	}
+
 	/**
 	 * Sets the parameters to format this text with.
 	 * 
@@ -74,7 +104,11 @@ public class TranslatedText extends RichText {
 	 */
 	@NotNull
 	public TranslatedText setWith(@Nullable Object... with) {
-		this.with = with;
+		this.checkNotFrozen();
+		this.updateDependencies(this.with, false);
+		this.updateDependencies(with, true);
+		this.with = with != null && with.length > 0 ? with.clone() : null;
+		this.invalidate();
 		return this;
 	}
 
@@ -106,9 +140,46 @@ public class TranslatedText extends RichText {
 		}
 		JsonArray jsonWith = new JsonArray();
 		for (int i = 0; i < with.length; i++) {
-			jsonWith.add(GSON.toJsonTree(with[i]));
+			jsonWith.add(RichTextValueEncoders.toJsonTree(with[i]));
 		}
 		json.add("with", jsonWith);
 	}
 
+	@Override
+	protected void writeText(@NotNull JsonWriter out) throws IOException {
+		if (with == null || with.length <= 0) {
+			return;
+		}
+		out.name("with").beginArray();
+		for (int i = 0; i < with.length; i++) {
+			RichTextValueEncoders.write(out, with[i]);
+		}
+		out.endArray();
+	}
+
+	@Override
+	protected void copyText(boolean freeze) {
+		if (with == null) {
+			return;
+		}
+		this.with = with.clone();
+		for (int i = 0; i < with.length; i++) {
+			if (with[i] instanceof RichText) {
+				RichText nested = copyNested((RichText) with[i], freeze);
+				nested.addDependent(this);
+				with[i] = nested;
+			}
+		}
+	}
+
+	@Override
+	protected int hashText() {
+		return Arrays.hashCode(with);
+	}
+
+	@Override
+	protected boolean equalsText(@NotNull RichText text) {
+		return Arrays.equals(with, ((TranslatedText) text).with);
+	}
+
 }
@@ -1,7 +1,9 @@
 package net.whirvis.mc.jsoncrafter.java.event;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -9,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Allows for events to occur when the player clicks on text. Usually, this
@@ -26,6 +29,11 @@ public class ClickEvent extends TextEvent {
 	public static final String CHANGE_PAGE = "change_page";
 	public static final String COPY_TO_CLIPBOARD = "copy_to_clipboard";
 
+	/*
+	 * URLs are kept as a ClickUrl rather than a java.net.URL, as the equals()
+	 * and hashCode() methods of the latter resolve the host. This can block
+	 * for a long time, and would happen whenever text is compared or hashed.
+	 */
 	private Object value;
 
 	/**
@@ -61,6 +69,21 @@ public class ClickEvent extends TextEvent {
 		}
 	}
 
+	/**
+	 * Returns if a URL is syntactically valid, and can be opened by a click
+	 * event. It must begin with a scheme (such as {@code https}) followed by
+	 * a colon, and must not contain any control characters. If the scheme is
+	 * followed by {@code //}, the host must not be empty. The host is never
+	 * looked up.
+	 * 
+	 * @param url
+	 *            the URL to check.
+	 * @return {@code true} if {@code url} is valid, {@code false} otherwise.
+	 */
+	public static boolean isValidURL(@Nullable String url) {
+		return ClickUrl.isValid(url);
+	}
+
 	/**
 	 * Returns the text that will be pasted into the chatbar.
 	 * 
@@ -86,58 +109,88 @@ public class ClickEvent extends TextEvent {
 	 */
 	@NotNull
 	public ClickEvent setText(@Nullable String text) {
+		this.checkNotFrozen();
 		this.value = text;
+		this.invalidate();
 		return this;
 	}
 
 	/**
-	 * Returns the URL that will be opened.
+	 * Returns the URL that will be opened, as it was given.
 	 * 
 	 * @return the URL, {@code null} if no URL.
 	 * @throws IllegalStateException
 	 *             if the value of this event is not a URL.
 	 */
 	@Nullable
-	public URL getURL() {
+	public String getURLString() {
 		try {
-			return (URL) this.value;
+			ClickUrl url = (ClickUrl) this.value;
+			return url != null ? url.toString() : null;
 		} catch (ClassCastException e) {
 			throw new IllegalStateException("value not a URL", e);
 		}
 	}
 
+	/**
+	 * Returns the URL that will be opened.
+	 * <p>
+	 * A new URL is created each time this is called. Keep in mind that the
+	 * {@code equals()} and {@code hashCode()} methods of {@link URL} resolve
+	 * the host, which can block for a long time. Prefer
+	 * {@link #getURLString()} where possible.
+	 * 
+	 * @return the URL, {@code null} if no URL.
+	 * @throws IllegalStateException
+	 *             if the value of this event is not a URL, or if the URL has
+	 *             a scheme unknown to {@link URL}.
+	 */
+	@Nullable
+	public URL getURL() {
+		String url = this.getURLString();
+		if (url == null) {
+			return null;
+		}
+		try {
+			return new URL(url);
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Sets the URL that will be opened.
 	 * 
 	 * @param url
 	 *            the URL, may be {@code null} for no URL.
 	 * @return this event.
+	 * @throws IllegalArgumentException
+	 *             if {@code url} is malformed.
 	 */
 	@NotNull
 	public ClickEvent setURL(@Nullable URL url) {
-		this.value = url;
-		return this;
+		return this.setURL(url != null ? url.toExternalForm() : null);
 	}
 
 	/**
 	 * Sets the URL that will be opened.
 	 * <p>
-	 * This method is a shorthand for {@link #setURL(URL)}, with {@code url}
-	 * being parsed into a URL.
+	 * The URL is only checked to be syntactically valid, and is not parsed
+	 * into a {@link URL}. Nothing is looked up.
 	 * 
 	 * @param url
 	 *            the URL, may be {@code null} for no URL.
 	 * @return this event.
 	 * @throws IllegalArgumentException
 	 *             if {@code url} is malformed.
+	 * @see #isValidURL(String)
 	 */
 	@NotNull
 	public final ClickEvent setURL(@Nullable String url) {
-		try {
-			return this.setURL(new URL(url));
-		} catch (MalformedURLException e) {
-			throw new IllegalArgumentException(e);
-		}
+		this.checkNotFrozen();
+		this.value = url != null ? ClickUrl.of(url) : null;
+		this.invalidate();
+		return this;
 	}
 
 	/**
@@ -166,10 +219,12 @@ public class ClickEvent extends TextEvent {
 	 */
 	@NotNull
 	public ClickEvent setPage(@Nullable Integer page) {
+		this.checkNotFrozen();
 		if (page != null && page < 0) {
 			throw new IllegalArgumentException("page < 0");
 		}
 		this.value = page;
+		this.invalidate();
 		return this;
 	}
 
@@ -178,7 +233,7 @@ public class ClickEvent extends TextEvent {
 		JsonElement valueJson = null;
 		if (value instanceof String) {
 			valueJson = new JsonPrimitive((String) value);
-		} else if (value instanceof URL) {
+		} else if (value instanceof ClickUrl) {
 			valueJson = new JsonPrimitive(value.toString());
 		} else if (value instanceof Integer) {
 			valueJson = new JsonPrimitive((Integer) value);
@@ -186,4 +241,29 @@ public class ClickEvent extends TextEvent {
 		json.add("value", valueJson);
 	}
 
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + Objects.hashCode(value);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!super.equals(obj)) {
+			return false;
+		}
+		ClickEvent event = (ClickEvent) obj;
+		return Objects.equals(value, event.value);
+	}
+
+	@Override
+	protected void writeEvent(@NotNull JsonWriter out) throws IOException {
+		if (value instanceof String) {
+			out.name("value").value((String) value);
+		} else if (value instanceof ClickUrl) {
+			out.name("value").value(value.toString());
+		} else if (value instanceof Integer) {
+			out.name("value").value((Integer) value);
+		}
+	}
+
 }
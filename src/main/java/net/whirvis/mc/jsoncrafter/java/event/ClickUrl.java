@@ -0,0 +1,119 @@
+package net.whirvis.mc.jsoncrafter.java.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A URL opened by a {@link ClickEvent}, which has been checked to be
+ * syntactically valid. Unlike {@link java.net.URL}, this never resolves the
+ * host. Two URLs are equal if and only if their strings are equal.
+ * <p>
+ * Validating a URL takes a single pass over it, which is no more costly than
+ * looking it up in a cache would be. As such, URLs are not cached.
+ */
+final class ClickUrl {
+
+	private final String url;
+
+	private ClickUrl(@NotNull String url) {
+		this.url = url;
+	}
+
+	private static boolean isAlpha(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isSchemeChar(char c) {
+		return isAlpha(c) || (c >= '0' && c <= '9') || c == '+' || c == '-'
+				|| c == '.';
+	}
+
+	/**
+	 * Returns if a URL is syntactically valid. It must begin with a scheme
+	 * (such as {@code https}) followed by a colon, and must not contain any
+	 * control characters. If the scheme is followed by {@code //}, the
+	 * authority (e.g., the host) must not be empty. Nothing is looked up.
+	 *
+	 * @param url
+	 *            the URL to check.
+	 * @return {@code true} if {@code url} is syntactically valid,
+	 *         {@code false} otherwise.
+	 */
+	static boolean isValid(@Nullable String url) {
+		if (url == null) {
+			return false;
+		}
+
+		int length = url.length();
+		int colon = url.indexOf(':');
+		if (colon <= 0 || colon >= length - 1) {
+			return false; /* no scheme, or nothing after it */
+		}
+
+		if (!isAlpha(url.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < colon; i++) {
+			if (!isSchemeChar(url.charAt(i))) {
+				return false;
+			}
+		}
+
+		for (int i = colon + 1; i < length; i++) {
+			if (Character.isISOControl(url.charAt(i))) {
+				return false;
+			}
+		}
+
+		if (url.startsWith("//", colon + 1)) {
+			int start = colon + 3;
+			if (start >= length) {
+				return false;
+			}
+			char c = url.charAt(start);
+			if (c == '/' || c == '?' || c == '#') {
+				return false; /* empty authority */
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the validated form of a URL.
+	 *
+	 * @param url
+	 *            the URL.
+	 * @return the validated URL.
+	 * @throws IllegalArgumentException
+	 *             if {@code url} is not syntactically valid.
+	 * @see #isValid(String)
+	 */
+	@NotNull
+	static ClickUrl of(@Nullable String url) {
+		if (!isValid(url)) {
+			throw new IllegalArgumentException("malformed URL: " + url);
+		}
+		return new ClickUrl(url);
+	}
+
+	@Override
+	public int hashCode() {
+		return url.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		} else if (!(obj instanceof ClickUrl)) {
+			return false;
+		}
+		return url.equals(((ClickUrl) obj).url);
+	}
+
+	@Override
+	public String toString() {
+		return this.url;
+	}
+
+}
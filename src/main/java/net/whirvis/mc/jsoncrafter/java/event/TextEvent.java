@@ -1,5 +1,6 @@
 package net.whirvis.mc.jsoncrafter.java.event;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
@@ -7,8 +8,17 @@ import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import net.whirvis.mc.jsoncrafter.java.Dependent;
+import net.whirvis.mc.jsoncrafter.java.Dependents;
 import net.whirvis.mc.jsoncrafter.java.RichText;
+import net.whirvis.mc.jsoncrafter.java.RichTextReader;
+import net.whirvis.mc.jsoncrafter.java.RichTextTypeAdapterFactory;
+import net.whirvis.mc.jsoncrafter.java.RichTextWriter;
 
 /**
  * Allows for events to occur when the player interacts with text.
@@ -17,7 +27,7 @@ import net.whirvis.mc.jsoncrafter.java.RichText;
  * "https://minecraft.fandom.com/wiki/Raw_JSON_text_format#Java_Edition">Minecraft
  * Wiki</a>.
  */
-public abstract class TextEvent {
+public abstract class TextEvent implements Dependent, Cloneable {
 
 	/**
 	 * Wrapper lambda to make {@code TextEvent} and its children function with
@@ -27,8 +37,42 @@ public abstract class TextEvent {
 	public static final JsonSerializer<TextEvent> SERIALIZER =
 			(src, type, ctx) -> src.toJson();
 
+	/**
+	 * Type adapter which streams {@code TextEvent} to and from JSON, without
+	 * first building a tree of JSON elements. When read, the type of event is
+	 * determined by its action. Events with an unknown action are read as
+	 * {@code null}.
+	 * 
+	 * @see RichTextTypeAdapterFactory
+	 */
+	public static final TypeAdapter<TextEvent> ADAPTER =
+			new TypeAdapter<TextEvent>() {
+
+				@Override
+				public void write(JsonWriter out, TextEvent value)
+						throws IOException {
+					if (value == null) {
+						out.nullValue();
+					} else {
+						value.writeJson(out);
+					}
+				}
+
+				@Override
+				public TextEvent read(JsonReader in) throws IOException {
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						return null;
+					}
+					return RichTextReader.readEvent(in);
+				}
+
+			};
+
 	private final String type;
 	private String action;
+	private Dependents dependents;
+	private boolean frozen;
 
 	/**
 	 * Constructs a new {@code TextEvent} of the specified type.
@@ -99,13 +143,138 @@ public abstract class TextEvent {
 	 */
 	@NotNull
 	public TextEvent setAction(@Nullable String action) {
+		this.checkNotFrozen();
 		if (action != null && !this.supportsAction(action)) {
 			throw new IllegalArgumentException("unsupported action");
 		}
 		this.action = action;
+		this.invalidate();
 		return this;
 	}
 
+	/**
+	 * Adds a dependent to this event, which will be invalidated when this
+	 * event changes.
+	 * 
+	 * @param dependent
+	 *            the dependent to add.
+	 * @throws NullPointerException
+	 *             if {@code dependent} is {@code null}.
+	 * @see Dependents#add(Dependent)
+	 */
+	public final void addDependent(@NotNull Dependent dependent) {
+		if (frozen) {
+			return; /* frozen events never change */
+		} else if (dependents == null) {
+			this.dependents = new Dependents();
+		}
+		dependents.add(dependent);
+	}
+
+	/**
+	 * Removes a dependent from this event.
+	 * 
+	 * @param dependent
+	 *            the dependent to remove.
+	 * @see Dependents#remove(Dependent)
+	 */
+	public final void removeDependent(@Nullable Dependent dependent) {
+		if (dependents != null) {
+			dependents.remove(dependent);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Events do not cache their own JSON. Instead, this invalidates the text
+	 * which they have been added to.
+	 */
+	@Override
+	public void invalidate() {
+		if (dependents != null) {
+			dependents.invalidate();
+		}
+	}
+
+	/**
+	 * Returns if this event is frozen.
+	 * 
+	 * @return {@code true} if this event is frozen, {@code false} otherwise.
+	 * @see #freeze()
+	 */
+	public final boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Ensures this event is not frozen. Subclasses must call this before
+	 * making any changes to their own parameters.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this event is frozen.
+	 */
+	protected final void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("event is frozen");
+		}
+	}
+
+	/**
+	 * Copies the event specific parameters of this event. This is called on a
+	 * newly cloned event, whose fields are still shared with the original.
+	 * Subclasses which have mutable parameters of their own (such as nested
+	 * text) must override this method to replace them with copies.
+	 * 
+	 * @param freeze
+	 *            {@code true} if the copy is being frozen, in which case nested
+	 *            values should be frozen rather than copied. Nested text should
+	 *            be copied via {@link RichText#copyNested(RichText, boolean)}.
+	 */
+	protected void copyEvent(boolean freeze) {
+		/* optional override */
+	}
+
+	@NotNull
+	private TextEvent copy(boolean freeze) {
+		TextEvent copy;
+		try {
+			copy = (TextEvent) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e); /* we implement Cloneable */
+		}
+		copy.dependents = null;
+		copy.frozen = false;
+		copy.copyEvent(freeze);
+		copy.frozen = freeze;
+		return copy;
+	}
+
+	/**
+	 * Returns a deep copy of this event. Changes to the copy are not reflected
+	 * in this event, and vice versa. The copy is never frozen.
+	 * 
+	 * @return a deep copy of this event.
+	 */
+	@NotNull
+	public TextEvent copy() {
+		return this.copy(false);
+	}
+
+	/**
+	 * Returns a frozen snapshot of this event. Frozen events (along with any
+	 * text or tooltip they contain) cannot be changed. Any attempt to do so
+	 * results in an {@link UnsupportedOperationException}.
+	 * 
+	 * @return a frozen snapshot of this event, or this event itself if it is
+	 *         already frozen.
+	 * @see RichText#freeze()
+	 */
+	@NotNull
+	public TextEvent freeze() {
+		return frozen ? this : this.copy(true);
+	}
+
 	/**
 	 * Serializes the event.
 	 * 
@@ -114,6 +283,25 @@ public abstract class TextEvent {
 	 */
 	protected abstract void serializeEvent(JsonObject json);
 
+	/**
+	 * Writes the event.
+	 * <p>
+	 * By default, this encodes the event via
+	 * {@link #serializeEvent(JsonObject)} and writes the result. Subclasses
+	 * should override this method, so no intermediate JSON object must be
+	 * created.
+	 * 
+	 * @param out
+	 *            the writer to write to.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	protected void writeEvent(@NotNull JsonWriter out) throws IOException {
+		JsonObject json = new JsonObject();
+		this.serializeEvent(json);
+		RichTextWriter.writeMembers(out, json);
+	}
+
 	/**
 	 * Serializes the event into JSON.
 	 * 
@@ -126,4 +314,41 @@ public abstract class TextEvent {
 		return json;
 	}
 
+	/**
+	 * Writes the event as JSON, without first building a JSON object. The
+	 * output is identical to that of {@link #toJson()}.
+	 * 
+	 * @param out
+	 *            the writer to write to.
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public final void writeJson(@NotNull JsonWriter out) throws IOException {
+		Objects.requireNonNull(out, "out");
+		out.beginObject();
+		if (action != null) {
+			out.name("action").value(action);
+		}
+		this.writeEvent(out);
+		out.endObject();
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + Objects.hashCode(action);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		} else if (obj == null || obj.getClass() != this.getClass()) {
+			return false;
+		}
+		TextEvent event = (TextEvent) obj;
+		return type.equals(event.type) && Objects.equals(action, event.action);
+	}
+
 }
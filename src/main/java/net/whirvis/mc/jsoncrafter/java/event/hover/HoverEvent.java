@@ -1,7 +1,9 @@
 package net.whirvis.mc.jsoncrafter.java.event.hover;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -9,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 import net.whirvis.mc.jsoncrafter.java.RichText;
 import net.whirvis.mc.jsoncrafter.java.event.TextEvent;
@@ -48,6 +51,34 @@ public class HoverEvent extends TextEvent {
 		}
 	}
 
+	private void updateDependencies(@Nullable Object value, boolean add) {
+		if (value instanceof RichText[]) {
+			for (RichText text : (RichText[]) value) {
+				if (text == null) {
+					continue;
+				} else if (add) {
+					text.addDependent(this);
+				} else {
+					text.removeDependent(this);
+				}
+			}
+		} else if (value instanceof HoverTooltip) {
+			HoverTooltip tooltip = (HoverTooltip) value;
+			if (add) {
+				tooltip.addDependent(this);
+			} else {
+				tooltip.removeDependent(this);
+			}
+		}
+	}
+
+	private void setValue(@Nullable Object value) {
+		this.updateDependencies(this.value, false);
+		this.updateDependencies(value, true);
+		this.value = value;
+		this.invalidate();
+	}
+
 	/**
 	 * Sets the tooltip text that will be shown.
 	 * <p>
@@ -62,11 +93,12 @@ public class HoverEvent extends TextEvent {
 	 */
 	@NotNull
 	public HoverEvent show(@Nullable Iterable<?> values) {
+		this.checkNotFrozen();
 		this.setAction(SHOW_TEXT);
 		List<RichText> texts = RichText.persuade(values);
-		this.value = !texts.isEmpty()
+		this.setValue(!texts.isEmpty()
 				? texts.toArray(new RichText[texts.size()])
-				: null;
+				: null);
 		return this;
 	}
 
@@ -103,11 +135,43 @@ public class HoverEvent extends TextEvent {
 	 */
 	@NotNull
 	public HoverEvent show(@Nullable HoverTooltip tooltip) {
+		this.checkNotFrozen();
 		this.setAction(tooltip.getAction());
-		this.value = tooltip;
+		this.setValue(tooltip);
 		return this;
 	}
 
+	/**
+	 * Returns how many pieces of text are shown in the tooltip.
+	 *
+	 * @return how many pieces of text are shown, {@code 0} if this event does
+	 *         not show text.
+	 */
+	public int getTextCount() {
+		return value instanceof RichText[] ? ((RichText[]) value).length : 0;
+	}
+
+	/**
+	 * Returns a piece of text shown in the tooltip. Unlike building a list of
+	 * them, this does not copy the text shown.
+	 *
+	 * @param index
+	 *            the index of the text.
+	 * @return the text at {@code index}.
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code index} is out of bounds.
+	 * @see #getTextCount()
+	 */
+	@NotNull
+	public RichText getText(int index) {
+		int count = this.getTextCount();
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException(
+					"index: " + index + ", size: " + count);
+		}
+		return ((RichText[]) value)[index];
+	}
+
 	@Override
 	protected void serializeEvent(JsonObject json) {
 		JsonElement contentsJson = null;
@@ -128,4 +192,61 @@ public class HoverEvent extends TextEvent {
 		json.add("contents", contentsJson);
 	}
 
+	@Override
+	protected void copyEvent(boolean freeze) {
+		if (value instanceof RichText[]) {
+			RichText[] texts = ((RichText[]) value).clone();
+			for (int i = 0; i < texts.length; i++) {
+				if (texts[i] != null) {
+					texts[i] = RichText.copyNested(texts[i], freeze);
+				}
+			}
+			this.value = texts;
+		} else if (value instanceof HoverTooltip) {
+			HoverTooltip tooltip = (HoverTooltip) value;
+			this.value = freeze ? tooltip.freeze() : tooltip.copy();
+		}
+		this.updateDependencies(value, true);
+	}
+
+	@Override
+	public int hashCode() {
+		int valueHash = value instanceof RichText[]
+				? Arrays.hashCode((RichText[]) value)
+				: Objects.hashCode(value);
+		return 31 * super.hashCode() + valueHash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!super.equals(obj)) {
+			return false;
+		}
+		HoverEvent event = (HoverEvent) obj;
+		if (value instanceof RichText[] && event.value instanceof RichText[]) {
+			return Arrays.equals((RichText[]) value, (RichText[]) event.value);
+		}
+		return Objects.equals(value, event.value);
+	}
+
+	@Override
+	protected void writeEvent(@NotNull JsonWriter out) throws IOException {
+		if (value instanceof RichText[]) {
+			RichText[] texts = (RichText[]) value;
+			if (texts.length == 1) {
+				out.name("contents");
+				texts[0].writeJson(out);
+			} else if (texts.length > 1) {
+				out.name("contents").beginArray();
+				for (RichText text : texts) {
+					text.writeJson(out);
+				}
+				out.endArray();
+			}
+		} else if (value instanceof HoverTooltip) {
+			out.name("contents");
+			((HoverTooltip) value).writeJson(out);
+		}
+	}
+
 }
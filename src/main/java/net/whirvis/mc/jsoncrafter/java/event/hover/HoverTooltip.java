@@ -1,17 +1,26 @@
 package net.whirvis.mc.jsoncrafter.java.event.hover;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import net.whirvis.mc.jsoncrafter.java.Dependent;
+import net.whirvis.mc.jsoncrafter.java.Dependents;
+import net.whirvis.mc.jsoncrafter.java.RichText;
 
 /**
  * A tooltip shown to the player.
  */
-public abstract class HoverTooltip {
+public abstract class HoverTooltip implements Cloneable {
 
 	private final String action;
+	private Dependents dependents;
+	private boolean frozen;
 
 	/**
 	 * Constructs a new {@code HoverAction}.
@@ -35,6 +44,126 @@ public abstract class HoverTooltip {
 		return this.action;
 	}
 
+	/**
+	 * Adds a dependent to this tooltip, which will be invalidated when this
+	 * tooltip changes.
+	 * 
+	 * @param dependent
+	 *            the dependent to add.
+	 * @throws NullPointerException
+	 *             if {@code dependent} is {@code null}.
+	 * @see Dependents#add(Dependent)
+	 */
+	public final void addDependent(@NotNull Dependent dependent) {
+		if (frozen) {
+			return; /* frozen tooltips never change */
+		} else if (dependents == null) {
+			this.dependents = new Dependents();
+		}
+		dependents.add(dependent);
+	}
+
+	/**
+	 * Removes a dependent from this tooltip.
+	 * 
+	 * @param dependent
+	 *            the dependent to remove.
+	 * @see Dependents#remove(Dependent)
+	 */
+	public final void removeDependent(@Nullable Dependent dependent) {
+		if (dependents != null) {
+			dependents.remove(dependent);
+		}
+	}
+
+	/**
+	 * Invalidates the dependents of this tooltip. This must be called by
+	 * subclasses whenever the tooltip changes.
+	 * 
+	 * @see Dependent#invalidate()
+	 */
+	protected final void invalidate() {
+		if (dependents != null) {
+			dependents.invalidate();
+		}
+	}
+
+	/**
+	 * Returns if this tooltip is frozen.
+	 * 
+	 * @return {@code true} if this tooltip is frozen, {@code false}
+	 *         otherwise.
+	 * @see #freeze()
+	 */
+	public final boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Ensures this tooltip is not frozen. Subclasses must call this before
+	 * making any changes to their own parameters.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this tooltip is frozen.
+	 */
+	protected final void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("tooltip is frozen");
+		}
+	}
+
+	@NotNull
+	private HoverTooltip copy(boolean freeze) {
+		HoverTooltip copy;
+		try {
+			copy = (HoverTooltip) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e); /* we implement Cloneable */
+		}
+		copy.dependents = null;
+		copy.frozen = freeze;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this tooltip. Changes to the copy are not reflected in
+	 * this tooltip, and vice versa. The copy is never frozen.
+	 * 
+	 * @return a copy of this tooltip.
+	 */
+	@NotNull
+	public HoverTooltip copy() {
+		return this.copy(false);
+	}
+
+	/**
+	 * Returns a frozen snapshot of this tooltip. Frozen tooltips cannot be
+	 * changed. Any attempt to do so results in an
+	 * {@link UnsupportedOperationException}.
+	 * 
+	 * @return a frozen snapshot of this tooltip, or this tooltip itself if it
+	 *         is already frozen.
+	 */
+	@NotNull
+	public HoverTooltip freeze() {
+		return frozen ? this : this.copy(true);
+	}
+
+	@Override
+	public int hashCode() {
+		return action.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		} else if (obj == null || obj.getClass() != this.getClass()) {
+			return false;
+		}
+		return action.equals(((HoverTooltip) obj).action);
+	}
+
 	/**
 	 * Serializes the tooltip.
 	 * 
@@ -43,4 +172,20 @@ public abstract class HoverTooltip {
 	@NotNull
 	protected abstract JsonObject toJson();
 
+	/**
+	 * Writes the tooltip.
+	 * <p>
+	 * By default, this encodes the tooltip via {@link #toJson()} and writes
+	 * the result. Subclasses should override this method, so no intermediate
+	 * JSON object must be created.
+	 * 
+	 * @param out
+	 *            the writer to write to.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	protected void writeJson(@NotNull JsonWriter out) throws IOException {
+		RichText.GSON.toJson(this.toJson(), out);
+	}
+
 }
@@ -1,5 +1,6 @@
 package net.whirvis.mc.jsoncrafter.java.event.hover;
 
+import java.io.IOException;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -7,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 import net.whirvis.mc.jsoncrafter.java.RichText;
 
@@ -143,7 +145,9 @@ public class TooltipEntity extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipEntity setName(@Nullable String name) {
+		this.checkNotFrozen();
 		this.name = name;
+		this.invalidate();
 		return this;
 	}
 
@@ -169,7 +173,9 @@ public class TooltipEntity extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipEntity setType(@Nullable String type) {
+		this.checkNotFrozen();
 		this.type = type;
+		this.invalidate();
 		return this;
 	}
 
@@ -194,7 +200,9 @@ public class TooltipEntity extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipEntity setId(@NotNull UUID id) {
+		this.checkNotFrozen();
 		this.id = Objects.requireNonNull(id, "id");
+		this.invalidate();
 		return this;
 	}
 
@@ -211,6 +219,7 @@ public class TooltipEntity extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipEntity setId(@NotNull String uuid) {
+		this.checkNotFrozen();
 		Objects.requireNonNull(uuid, "uuid");
 		UUID id = UUID.fromString(uuid);
 		return this.setId(id);
@@ -225,4 +234,39 @@ public class TooltipEntity extends HoverTooltip {
 		return entityJson;
 	}
 
+	@Override
+	public int hashCode() {
+		int hash = super.hashCode();
+		hash = 31 * hash + Objects.hashCode(name);
+		hash = 31 * hash + Objects.hashCode(type);
+		hash = 31 * hash + Objects.hashCode(id);
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!super.equals(obj)) {
+			return false;
+		}
+		TooltipEntity entity = (TooltipEntity) obj;
+		return Objects.equals(name, entity.name)
+				&& Objects.equals(type, entity.type)
+				&& Objects.equals(id, entity.id);
+	}
+
+	@Override
+	protected void writeJson(@NotNull JsonWriter out) throws IOException {
+		out.beginObject();
+		if (name != null) {
+			out.name("name").value(name);
+		}
+		if (type != null) {
+			out.name("type").value(type);
+		}
+		if (id != null) {
+			out.name("id").value(id.toString());
+		}
+		out.endObject();
+	}
+
 }
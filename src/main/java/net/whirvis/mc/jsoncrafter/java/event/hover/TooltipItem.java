@@ -1,9 +1,13 @@
 package net.whirvis.mc.jsoncrafter.java.event.hover;
 
+import java.io.IOException;
+import java.util.Objects;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 import net.whirvis.mc.jsoncrafter.java.RichText;
 
@@ -91,7 +95,9 @@ public class TooltipItem extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipItem setId(@Nullable String id) {
+		this.checkNotFrozen();
 		this.id = id;
+		this.invalidate();
 		return this;
 	}
 
@@ -116,7 +122,9 @@ public class TooltipItem extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipItem setCount(@Nullable Integer count) {
+		this.checkNotFrozen();
 		this.count = count;
+		this.invalidate();
 		return this;
 	}
 
@@ -140,7 +148,9 @@ public class TooltipItem extends HoverTooltip {
 	 */
 	@NotNull
 	public TooltipItem setTag(@Nullable String tag) {
+		this.checkNotFrozen();
 		this.tag = tag;
+		this.invalidate();
 		return this;
 	}
 
@@ -153,4 +163,39 @@ public class TooltipItem extends HoverTooltip {
 		return itemJson;
 	}
 
+	@Override
+	public int hashCode() {
+		int hash = super.hashCode();
+		hash = 31 * hash + Objects.hashCode(id);
+		hash = 31 * hash + Objects.hashCode(count);
+		hash = 31 * hash + Objects.hashCode(tag);
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!super.equals(obj)) {
+			return false;
+		}
+		TooltipItem item = (TooltipItem) obj;
+		return Objects.equals(id, item.id)
+				&& Objects.equals(count, item.count)
+				&& Objects.equals(tag, item.tag);
+	}
+
+	@Override
+	protected void writeJson(@NotNull JsonWriter out) throws IOException {
+		out.beginObject();
+		if (id != null) {
+			out.name("id").value(id);
+		}
+		if (count != null) {
+			out.name("count").value(count);
+		}
+		if (tag != null) {
+			out.name("tag").value(tag);
+		}
+		out.endObject();
+	}
+
 }
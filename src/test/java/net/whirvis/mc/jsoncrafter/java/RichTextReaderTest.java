@@ -0,0 +1,193 @@
+package net.whirvis.mc.jsoncrafter.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import net.whirvis.mc.jsoncrafter.java.event.ClickEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.HoverEvent;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipEntity;
+import net.whirvis.mc.jsoncrafter.java.event.hover.TooltipItem;
+
+/**
+ * Checks that {@link RichTextReader} reads back what {@link RichText} writes,
+ * along with the forms of JSON the game accepts which are never written.
+ */
+public class RichTextReaderTest {
+
+	private static final UUID ENTITY_ID =
+			UUID.fromString("0f6b1d3e-7a52-4c1e-9d2a-5b8e6c4f3a21");
+
+	/*
+	 * Writes text as JSON, and reads it back. The text which was read must
+	 * be equal to the original, and must be written the same way.
+	 */
+	@NotNull
+	private static RichText roundTrip(@NotNull RichText text) {
+		String json = text.toString();
+		RichText read = RichText.fromJson(json);
+		assertEquals(json, read.toString());
+		assertEquals(text, read);
+		return read;
+	}
+
+	@Test
+	public void readsPlainText() {
+		roundTrip(new PlainText("Hello, world!"));
+		roundTrip(new PlainText(""));
+		roundTrip(new PlainText(42));
+		roundTrip(new PlainText(4.5D));
+		roundTrip(new PlainText(true));
+	}
+
+	@Test
+	public void readsTranslatedText() {
+		roundTrip(new TranslatedText("chat.type.text"));
+		roundTrip(new TranslatedText("chat.type.text", "Steve",
+				new PlainText("hi").setColor("gray"), 7));
+	}
+
+	@Test
+	public void readsKeybindText() {
+		roundTrip(new KeybindText("key.jump"));
+	}
+
+	@Test
+	public void readsScoreText() {
+		Map<String, Object> score = new LinkedHashMap<>();
+		score.put("name", "@p");
+		score.put("objective", "kills");
+		roundTrip(new RichText("score", score));
+	}
+
+	@Test
+	public void readsSelectorText() {
+		roundTrip(new RichText("selector", "@e[type=pig]"));
+	}
+
+	@Test
+	public void readsContentInGameOrder() {
+		RichText text = RichText.fromJson("{\"keybind\":\"key.jump\","
+				+ "\"selector\":\"@a\",\"translate\":\"a.b\",\"text\":\"t\"}");
+		assertEquals(new PlainText("t"), text);
+
+		text = RichText.fromJson("{\"keybind\":\"key.jump\","
+				+ "\"selector\":\"@a\",\"translate\":\"a.b\"}");
+		assertEquals(new TranslatedText("a.b"), text);
+
+		text = RichText.fromJson("{\"keybind\":\"key.jump\","
+				+ "\"selector\":\"@a\"}");
+		assertEquals(new RichText("selector", "@a"), text);
+	}
+
+	@Test
+	public void readsStyle() {
+		RichText text = new PlainText("styled");
+		text.setColor("#ff8800").setFont("minecraft:uniform");
+		text.setBold(true).setItalic(false).setUnderlined(true);
+		text.setStrikethrough(false).setObfuscated(true);
+		text.setInsertion("inserted");
+		RichText read = roundTrip(text);
+		assertSame(text.getStyle(), read.getStyle());
+	}
+
+	@Test
+	public void readsEvents() {
+		roundTrip(new PlainText("url").addEvent(new ClickEvent(
+				ClickEvent.OPEN_URL).setURL("https://example.com/")));
+		roundTrip(new PlainText("command").addEvent(new ClickEvent(
+				ClickEvent.RUN_COMMAND).setText("/say hi")));
+		roundTrip(new PlainText("page").addEvent(new ClickEvent(
+				ClickEvent.CHANGE_PAGE).setPage(3)));
+
+		roundTrip(new PlainText("text").addEvent(new HoverEvent()
+				.show(new PlainText("tooltip").setColor("gold"))));
+		roundTrip(new PlainText("texts").addEvent(new HoverEvent()
+				.show(new PlainText("first"), new PlainText("second"))));
+		roundTrip(new PlainText("item").addEvent(new HoverEvent()
+				.show(new TooltipItem("minecraft:diamond", 3))));
+		roundTrip(new PlainText("entity").addEvent(new HoverEvent()
+				.show(new TooltipEntity("Pig", "minecraft:pig", ENTITY_ID))));
+	}
+
+	@Test
+	public void readsEventValueBeforeAction() {
+		RichText text = RichText.fromJson("{\"text\":\"a\","
+				+ "\"clickEvent\":{\"value\":\"/help\","
+				+ "\"action\":\"run_command\"},"
+				+ "\"hoverEvent\":{\"contents\":{\"text\":\"tip\"},"
+				+ "\"action\":\"show_text\"}}");
+		assertEquals(new ClickEvent(ClickEvent.RUN_COMMAND).setText("/help"),
+				text.getClickEvent());
+		assertEquals(new HoverEvent().show(new PlainText("tip")),
+				text.getHoverEvent());
+
+		text = RichText.fromJson("{\"text\":\"a\",\"hoverEvent\":{"
+				+ "\"value\":\"{id:\\\"minecraft:stone\\\",Count:2b}\","
+				+ "\"action\":\"show_item\"}}");
+		assertEquals(new HoverEvent().show(new TooltipItem("minecraft:stone",
+				2)), text.getHoverEvent());
+	}
+
+	@Test
+	public void readsLegacyEntityTooltip() {
+		RichText text = RichText.fromJson("{\"text\":\"a\",\"hoverEvent\":{"
+				+ "\"action\":\"show_entity\",\"value\":\"{type:"
+				+ "\\\"minecraft:pig\\\",id:\\\"" + ENTITY_ID + "\\\","
+				+ "name:\\\"{\\\\\\\"text\\\\\\\":\\\\\\\"Pig\\\\\\\"}\\\"}\"}}");
+		assertEquals(new HoverEvent().show(new TooltipEntity("Pig",
+				"minecraft:pig", ENTITY_ID)), text.getHoverEvent());
+	}
+
+	@Test
+	public void ignoresMalformedClickUrls() {
+		String[] urls = { "not a url", "example.com", "https:",
+				"https://", "https:///path", "1http://example.com",
+				"https://exa\u0007mple.com" };
+		for (String url : urls) {
+			String json = "{\"text\":\"a\",\"clickEvent\":{"
+					+ "\"action\":\"open_url\",\"value\":"
+					+ RichText.GSON.toJson(url) + "}}";
+			RichText text = RichText.fromJson(json);
+			assertEquals(new PlainText("a"), text);
+			assertNull(url, text.getClickEvent());
+		}
+	}
+
+	@Test
+	public void readsArrayAsSiblings() {
+		RichText text = RichText.fromJson("[\"a\",{\"text\":\"b\"},[\"c\"]]");
+		RichText expected = new PlainText("a");
+		expected.addExtra(new PlainText("b"), new PlainText("c"));
+		assertEquals(expected, text);
+	}
+
+	@Test
+	public void readsExtras() {
+		RichText text = new PlainText("root").setBold(true);
+		text.addExtra(new PlainText("one").setColor("red"),
+				new TranslatedText("two"), new KeybindText("key.three"));
+		text.getExtra().get(0).addExtra(new PlainText("nested"));
+		roundTrip(text);
+	}
+
+	@Test
+	public void readsDeepExtras() {
+		RichText root = new PlainText("0");
+		RichText parent = root;
+		for (int i = 1; i < 10000; i++) {
+			RichText child = new PlainText(Integer.toString(i));
+			parent.addExtra(child);
+			parent = child;
+		}
+		roundTrip(root);
+	}
+
+}